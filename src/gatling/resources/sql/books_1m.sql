@@ -0,0 +1,32 @@
+-- Seeds ~1M synthetic books for BookSearchSimulation.
+-- Run against a scratch database: psql -d library -f books_1m.sql
+SELECT setseed(0.42);
+
+INSERT INTO books (title, author, isbn)
+SELECT initcap(w1.word || ' ' || w2.word || ' ' || w3.word),
+       initcap(f.name || ' ' || l.name),
+       lpad((9780000000000 + g)::text, 13, '0')
+FROM generate_series(1, 1000000) AS g
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['great','silent','hidden','last','lost','broken','golden','dark','winter','summer',
+                  'secret','burning','wild','quiet','ancient','crimson','distant','endless','fallen','frozen'])[1 + floor(random() * 20)::int] AS word
+    WHERE g > 0) w1
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['river','garden','kingdom','house','city','ocean','forest','empire','island','mountain',
+                  'library','harbor','tower','valley','desert','station','bridge','castle','storm','road'])[1 + floor(random() * 20)::int] AS word
+    WHERE g > 0) w2
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['chronicles','legacy','story','secrets','requiem','promise','shadows','journey','memories','song',
+                  'rising','diaries','echoes','letters','saga','tales','hours','keeper','gambit','prophecy'])[1 + floor(random() * 20)::int] AS word
+    WHERE g > 0) w3
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['anna','jan','maria','piotr','olivia','james','sofia','lucas','emma','noah',
+                  'zofia','adam','ewa','tomasz','clara','henry','ida','oskar','nina','leo'])[1 + floor(random() * 20)::int] AS name
+    WHERE g > 0) f
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['kowalski','nowak','smith','brown','wisniewski','miller','lewandowski','taylor','wojcik','clark',
+                  'kaminski','walker','zielinski','young','szymanski','king','wright','dabrowski','scott','green'])[1 + floor(random() * 20)::int] AS name
+    WHERE g > 0) l
+ON CONFLICT (isbn) DO NOTHING;
+
+ANALYZE books;
@@ -0,0 +1,42 @@
+-- Seeds ~1M synthetic users and 10k libraries for UserLibrarySearchSimulation.
+-- Run against a scratch database: psql -d library -f users_1m.sql
+-- Every seeded account has the password "user" (same bcrypt hash as user@example.com).
+SELECT setseed(0.42);
+
+INSERT INTO libraries (name, address, status)
+SELECT 'Library ' || l.name || ' ' || g,
+       s.street || ' ' || (1 + floor(random() * 200)::int) || ', ' || c.city,
+       'ACTIVE'
+FROM generate_series(1, 10000) AS g
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['central','public','city','district','university','school','community','regional','children','music'])[1 + floor(random() * 10)::int] AS name
+    WHERE g > 0) l
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['Main St','Oak Ave','Market Sq','Long St','Park Ln','Mill Rd','Church St','High St','Lake Dr','River Rd'])[1 + floor(random() * 10)::int] AS street
+    WHERE g > 0) s
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['Krakow','Warsaw','Gdansk','Poznan','Wroclaw','Lodz','Lublin','Szczecin','Katowice','Torun'])[1 + floor(random() * 10)::int] AS city
+    WHERE g > 0) c
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO users (password, email, name, surname, role, library_id, active)
+SELECT (SELECT password FROM users WHERE email = 'user@example.com'),
+       lower(f.name || '.' || l.name || '.' || g) || '@example.org',
+       initcap(f.name),
+       initcap(l.name),
+       CASE WHEN g % 100 = 0 THEN 'LIBRARIAN' ELSE 'USER' END,
+       CASE WHEN g % 100 = 0 THEN (SELECT min(id) FROM libraries) + (g / 100) % 10000 END,
+       TRUE
+FROM generate_series(1, 1000000) AS g
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['anna','jan','maria','piotr','olivia','james','sofia','lucas','emma','noah',
+                  'zofia','adam','ewa','tomasz','clara','henry','ida','oskar','nina','leo'])[1 + floor(random() * 20)::int] AS name
+    WHERE g > 0) f
+CROSS JOIN LATERAL (
+    SELECT (ARRAY['kowalski','nowak','smith','brown','wisniewski','miller','lewandowski','taylor','wojcik','clark',
+                  'kaminski','walker','zielinski','young','szymanski','king','wright','dabrowski','scott','green'])[1 + floor(random() * 20)::int] AS name
+    WHERE g > 0) l
+ON CONFLICT (email) DO NOTHING;
+
+ANALYZE users;
+ANALYZE libraries;
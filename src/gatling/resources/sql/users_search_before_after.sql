@@ -0,0 +1,23 @@
+-- Before/after plans for the /users/search and /libraries/search predicates on the users_1m.sql data set.
+-- "Before" disables bitmap scans, which is what the plain LIKE '%x%' predicates got without the V12 trigram indexes.
+\timing on
+
+SET enable_bitmapscan = off;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, email, name, surname, role, library_id FROM users
+WHERE lower(email) LIKE '%nowak.12%' ESCAPE '\' ORDER BY id LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM users WHERE lower(name) LIKE '%oska%' ESCAPE '\';
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, address, status FROM libraries
+WHERE lower(address) LIKE '%market sq 1%' ESCAPE '\' ORDER BY id LIMIT 20;
+
+RESET enable_bitmapscan;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, email, name, surname, role, library_id FROM users
+WHERE lower(email) LIKE '%nowak.12%' ESCAPE '\' ORDER BY id LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM users WHERE lower(name) LIKE '%oska%' ESCAPE '\';
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, address, status FROM libraries
+WHERE lower(address) LIKE '%market sq 1%' ESCAPE '\' ORDER BY id LIMIT 20;
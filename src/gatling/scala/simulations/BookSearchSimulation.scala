@@ -0,0 +1,74 @@
+package simulations
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * Search benchmark over a large catalog. Seed the database with src/gatling/resources/sql/books_1m.sql first.
+ * Compares the exact-match search (title/author parameters) with the ranked full-text search (q parameter).
+ */
+class BookSearchSimulation extends Simulation {
+
+  val httpProtocol = http
+    .baseUrl("http://localhost:8080")
+    .acceptHeader("application/json")
+    .contentTypeHeader("application/json")
+
+  val queries = Array(
+    "great river", "silent gard", "hidden kingdom chron", "lost", "kowalski", "anna nowak",
+    "golden islnd", "wintr storm", "secret library saga", "fallen towr", "brown", "crimson"
+  ).map(q => Map("q" -> q))
+
+  val login = exec(
+    http("Login")
+      .post("/auth/login")
+      .body(StringBody("""{ "email": "user@example.com", "password": "user" }""")).asJson
+      .check(status.is(200))
+      .check(jsonPath("$.accessToken").saveAs("jwt"))
+  )
+
+  val fullTextSearch = feed(queries.circular)
+    .exec(
+      http("Full-text search")
+        .get("/books/search")
+        .queryParam("q", "#{q}")
+        .queryParam("size", "20")
+        .header("Authorization", session => "Bearer " + session("jwt").as[String])
+        .check(status.is(200))
+    )
+
+  val fullTextSearchSecondPage = feed(queries.circular)
+    .exec(
+      http("Full-text search (page 2)")
+        .get("/books/search")
+        .queryParam("q", "#{q}")
+        .queryParam("page", "2")
+        .queryParam("size", "20")
+        .header("Authorization", session => "Bearer " + session("jwt").as[String])
+        .check(status.is(200))
+    )
+
+  val partialTitleSearch = exec(
+    http("Partial title search")
+      .get("/books/search?title=Silent River")
+      .header("Authorization", session => "Bearer " + session("jwt").as[String])
+      .check(status.is(200))
+  )
+
+  val scn = scenario("Book search over a large catalog")
+    .exec(login)
+    .repeat(20) {
+      exec(fullTextSearch)
+        .exec(fullTextSearchSecondPage)
+        .exec(partialTitleSearch)
+    }
+
+  setUp(
+    scn.inject(rampUsers(20).during(10.seconds))
+  ).protocols(httpProtocol)
+    .assertions(
+      details("Full-text search").responseTime.percentile(99).lt(200),
+      details("Full-text search (page 2)").responseTime.percentile(99).lt(200)
+    )
+}
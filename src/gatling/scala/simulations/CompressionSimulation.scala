@@ -0,0 +1,125 @@
+package simulations
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+
+import java.net.URI
+import java.net.http.{HttpClient, HttpRequest, HttpResponse}
+import scala.concurrent.duration._
+
+/**
+ * Bytes on the wire and server CPU per response for the large list endpoints with a given Accept-Encoding.
+ * The byte sizes are measured before the load with a plain JDK client, which does not decompress bodies;
+ * CPU time comes from process.cpu.time on /actuator/metrics, sampled before and after the load.
+ * Run it once per encoding (and with HTTP_COMPRESSION_MIN_SIZE / HTTP_COMPRESSION_ENABLED varied on the server)
+ * and compare the printed summaries together with the latency percentiles of the Gatling reports. Start the server
+ * with the loadtest profile, so the login rate limit does not reject the logins all coming from this host:
+ *
+ *   ./gradlew bootRun --args='--spring.profiles.active=loadtest'
+ *   ./gradlew gatlingRun --simulation simulations.CompressionSimulation -Dencoding=gzip
+ *   ./gradlew gatlingRun --simulation simulations.CompressionSimulation -Dencoding=identity
+ *
+ * HTTP/2 over TLS (tls profile): add -DbaseUrl=https://localhost:8443 -Dhttp2=true.
+ *
+ * /books carries a strong ETag, which Tomcat never compresses, so its row shows the same size for both encodings.
+ */
+class CompressionSimulation extends Simulation {
+
+  val baseUrl = System.getProperty("baseUrl", "http://localhost:8080")
+  val encoding = System.getProperty("encoding", "gzip")
+  val users = Integer.getInteger("users", 20)
+  val repeat = Integer.getInteger("repeat", 50)
+  val http2 = java.lang.Boolean.getBoolean("http2")
+  val endpoints = Seq("/loans", "/users", "/copies", "/books")
+
+  val client = HttpClient.newBuilder()
+    .version(if (http2) HttpClient.Version.HTTP_2 else HttpClient.Version.HTTP_1_1)
+    .build()
+
+  def adminToken(): String = {
+    val response = client.send(
+      HttpRequest.newBuilder(URI.create(s"$baseUrl/auth/login"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString("""{"email":"admin@example.com","password":"admin"}"""))
+        .build(),
+      HttpResponse.BodyHandlers.ofString())
+    """"accessToken"\s*:\s*"([^"]+)"""".r.findFirstMatchIn(response.body()).map(_.group(1))
+      .getOrElse(sys.error(s"Admin login failed with status ${response.statusCode()}"))
+  }
+
+  def fetch(path: String, token: String, acceptEncoding: String): HttpResponse[Array[Byte]] =
+    client.send(
+      HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .header("Authorization", s"Bearer $token")
+        .header("Accept-Encoding", acceptEncoding)
+        .GET()
+        .build(),
+      HttpResponse.BodyHandlers.ofByteArray())
+
+  def cpuSeconds(token: String): Double = {
+    val body = new String(fetch("/actuator/metrics/process.cpu.time", token, "identity").body(), "UTF-8")
+    val value = """"value"\s*:\s*([0-9.Ee+-]+)""".r.findFirstMatchIn(body).map(_.group(1).toDouble)
+      .getOrElse(sys.error(s"process.cpu.time not available: $body"))
+    if (body.contains("\"nanoseconds\"")) value / 1e9 else value
+  }
+
+  var cpuAtStart = 0.0
+
+  before {
+    val token = adminToken()
+    println(s"Bytes on the wire per response, Accept-Encoding: identity vs $encoding")
+    endpoints.foreach { path =>
+      val identity = fetch(path, token, "identity")
+      val encoded = fetch(path, token, encoding)
+      val contentEncoding = encoded.headers().firstValue("Content-Encoding").orElse("none")
+      val ratio = 100.0 * encoded.body().length / math.max(identity.body().length, 1)
+      println(f"  $path%-8s ${identity.body().length}%10d B -> ${encoded.body().length}%10d B ($ratio%5.1f%%, " +
+        s"Content-Encoding: $contentEncoding, ${encoded.version()})")
+    }
+    cpuAtStart = cpuSeconds(token)
+  }
+
+  after {
+    val cpu = cpuSeconds(adminToken()) - cpuAtStart
+    val responses = users * repeat * endpoints.size
+    println(f"Server CPU with Accept-Encoding $encoding: $cpu%.2f s for $responses responses, " +
+      f"${cpu * 1e6 / responses}%.0f us per response")
+  }
+
+  // no If-None-Match on repeats: every /books response is a full body, as for a client seeing it the first time
+  val baseProtocol = http
+    .baseUrl(baseUrl)
+    .acceptHeader("application/json")
+    .acceptEncodingHeader(encoding)
+    .disableCaching
+    .shareConnections
+
+  val httpProtocol = if (http2) baseProtocol.enableHttp2 else baseProtocol
+
+  val login = exec(
+    http("Login admin")
+      .post("/auth/login")
+      .body(StringBody("""{"email":"admin@example.com","password":"admin"}""")).asJson
+      .check(status.is(200))
+      .check(jsonPath("$.accessToken").saveAs("jwt"))
+  ).exitHereIfFailed
+
+  val lists = endpoints.map { path =>
+    exec(
+      http(s"GET $path ($encoding)")
+        .get(path)
+        .header("Authorization", "Bearer #{jwt}")
+        .check(status.is(200))
+    )
+  }.reduce((a, b) => a.exec(b))
+
+  val scn = scenario(s"Large list responses with Accept-Encoding: $encoding")
+    .exec(login)
+    .repeat(repeat) {
+      exec(lists)
+    }
+
+  setUp(
+    scn.inject(rampUsers(users).during(10.seconds))
+  ).protocols(httpProtocol)
+}
@@ -116,7 +116,7 @@ class LoanControllerSimulation extends Simulation {
     .pause(1)
     .exec(authorizedGet("Get user loans", s"/loans/user/$exampleUserId"))
     .pause(1)
-    .exec(authorizedPost("Create loan", "/loans", s"userId=$exampleUserId&copyId=$exampleCopyId"))
+    .exec(authorizedPost("Create loan", s"/loans?userId=$exampleUserId&copyId=$exampleCopyId", ""))
     .pause(1)
     .exec(authorizedPost("Return loan", s"/loans/$exampleLoanId/return", ""))
     .pause(1)
@@ -132,7 +132,7 @@ class LoanControllerSimulation extends Simulation {
     .pause(1)
     .exec(authorizedGet("Get user loans", s"/loans/user/$exampleUserId"))
     .pause(1)
-    .exec(authorizedPost("Create loan", "/loans", s"userId=$exampleUserId&copyId=$exampleCopyId"))
+    .exec(authorizedPost("Create loan", s"/loans?userId=$exampleUserId&copyId=$exampleCopyId", ""))
     .pause(1)
     .exec(authorizedPost("Return loan", s"/loans/$exampleLoanId/return", ""))
     .pause(1)
@@ -154,4 +154,8 @@ class LoanControllerSimulation extends Simulation {
     librarianScenario.inject(rampUsers(10).during(10.seconds)),
     userScenario.inject(rampUsers(10).during(10.seconds))
   ).protocols(httpProtocol)
+    .assertions(
+      details("Create loan").responseTime.percentile(50).lt(100),
+      details("Create loan").responseTime.percentile(99).lt(500)
+    )
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package simulations
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * Morning login storm: a burst of distinct patrons logging in at once on top of a steady background of
+ * authenticated reads. What matters is that the background reads keep their latency while the storm lasts, and
+ * that logins past the hashing capacity come back as fast 429s instead of queueing for seconds. The number of
+ * rejected logins is on /actuator/prometheus as library_errors_total{key="http.too_many_logins"}.
+ *
+ * Accounts come from the data generator (see PatronLifecycleSimulation). Compare runs with the hashing pool on and
+ * off, or with different BCrypt costs:
+ *
+ *   ./gradlew gatlingRun --simulation simulations.LoginStormSimulation -DstormUsersPerSec=200 -DstormSeconds=60
+ *   PASSWORD_HASHING_THREADS=-1 ./gradlew bootRun   # hash on the request thread, no limit
+ *   BCRYPT_STRENGTH=12 ./gradlew bootRun
+ *
+ * All logins come from one address, so the app has to run with LOGIN_RATE_LIMIT_ENABLED=false, otherwise the
+ * per-address limit answers nearly all of them with 429 before any hashing happens.
+ */
+class LoginStormSimulation extends Simulation {
+
+  val stormUsersPerSec = Integer.getInteger("stormUsersPerSec", 200).toDouble
+  val stormDuration = Integer.getInteger("stormSeconds", 60).seconds
+  val backgroundUsers = Integer.getInteger("backgroundUsers", 50)
+  val loginP99Ms = Integer.getInteger("loginP99Ms", 1000)
+  val readP99Ms = Integer.getInteger("readP99Ms", 250)
+
+  val httpProtocol = http
+    .baseUrl("http://localhost:8080")
+    .acceptHeader("application/json")
+    .contentTypeHeader("application/json")
+
+  val accounts = csv("accounts.csv").readRecords
+  val patronAccounts = accounts.filter(_("role") == "USER").toArray
+
+  // 429 is the expected answer once the hashing pool is saturated, so it does not count as a failure
+  val login = exec(
+    http("Login")
+      .post("/auth/login")
+      .body(StringBody("""{ "email": "#{email}", "password": "#{password}" }""")).asJson
+      .check(status.in(200, 429))
+      .check(jsonPath("$.accessToken").optional.saveAs("jwt"))
+  )
+
+  val storm = scenario("Login storm")
+    .feed(patronAccounts.circular)
+    .exec(login)
+
+  val background = scenario("Background reads")
+    .feed(patronAccounts.random)
+    .exec(login)
+    .exitHereIf(session => !session.contains("jwt"))
+    .during(stormDuration + 30.seconds) {
+      exec(
+        http("My active loans")
+          .get("/loans/me/active")
+          .header("Authorization", session => "Bearer " + session("jwt").as[String])
+          .check(status.is(200))
+      ).pause(500.milliseconds, 1.second)
+    }
+
+  setUp(
+    background.inject(rampUsers(backgroundUsers).during(10.seconds)),
+    storm.inject(
+      nothingFor(15.seconds),
+      constantUsersPerSec(stormUsersPerSec).during(stormDuration)
+    )
+  ).protocols(httpProtocol)
+    .assertions(
+      details("My active loans").responseTime.percentile(99).lt(readP99Ms),
+      details("Login").responseTime.percentile(99).lt(loginP99Ms),
+      details("My active loans").failedRequests.percent.lt(1)
+    )
+}
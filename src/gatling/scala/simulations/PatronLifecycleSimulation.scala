@@ -0,0 +1,240 @@
+package simulations
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+import java.time.LocalDate
+
+/**
+ * Closed-loop model of a library day. A fixed population of patrons and desk librarians logs in once, keeps its
+ * token for the whole visit (refreshing it before the 15 minute expiry) and cycles through think time and actions
+ * in production-like ratios: patrons search, check availability and reserve; librarians watch their library's
+ * dashboards and turn reservations into loans, take returns and extend loans.
+ *
+ * Accounts come from the data generator, which writes the most active patrons and all librarians. The app runs with
+ * the loadtest profile, which turns off the login rate limit that would reject most logins coming from this one host:
+ *
+ *   ./gradlew bootRun --args='--spring.profiles.active=loadtest'
+ *   ./gradlew generateData --args="--url=jdbc:postgresql://localhost:5432/library_db --user=postgres --password=postgres --accounts-file=src/gatling/resources/accounts.csv"
+ *   ./gradlew gatlingRun --simulation simulations.PatronLifecycleSimulation -Dpatrons=500 -Dlibrarians=20 -Dminutes=20
+ *
+ * Every operation has its own p95/p99 bound (override with e.g. -Dslo.Search\ books.p99=800), so a regression in one
+ * path fails the run even when the mix hides it.
+ */
+class PatronLifecycleSimulation extends Simulation {
+
+  val patrons = Integer.getInteger("patrons", 500)
+  val librarians = Integer.getInteger("librarians", 20)
+  val rampUp = Integer.getInteger("rampSeconds", 60).seconds
+  // longer than the refresh threshold, so every run exercises token refresh
+  val visit = Integer.getInteger("minutes", 20).minutes
+  val refreshAfterMillis = 12.minutes.toMillis
+
+  val httpProtocol = http
+    .baseUrl("http://localhost:8080")
+    .acceptHeader("application/json")
+    .contentTypeHeader("application/json")
+
+  val accounts = csv("accounts.csv").readRecords
+  val patronAccounts = accounts.filter(_("role") == "USER").toArray.random
+  val librarianAccounts = accounts.filter(_("role") == "LIBRARIAN").toArray.random
+
+  val searchTerms = Array(
+    "great", "silent river", "hidden kingdom", "lost", "golden island", "winter storm", "secret library",
+    "fallen tower", "kowalski", "anna nowak", "crimson", "ancient castle saga", "dark harbor"
+  ).map(q => Map("q" -> q)).random
+
+  val bearer = (session: Session) => "Bearer " + session("jwt").as[String]
+
+  val login = exec(
+    http("Login")
+      .post("/auth/login")
+      .body(StringBody("""{ "email": "#{email}", "password": "#{password}" }""")).asJson
+      .check(status.is(200))
+      .check(jsonPath("$.accessToken").saveAs("jwt"))
+      .check(jsonPath("$.refreshToken").saveAs("refreshToken"))
+  ).exitHereIfFailed
+    .exec(session => session.set("tokenIssuedAt", System.currentTimeMillis))
+
+  val refreshIfStale = doIf(session => System.currentTimeMillis - session("tokenIssuedAt").as[Long] > refreshAfterMillis) {
+    exec(
+      http("Refresh token")
+        .post("/auth/refresh")
+        .body(StringBody("""{ "refreshToken": "#{refreshToken}" }""")).asJson
+        .check(status.is(200))
+        .check(jsonPath("$.accessToken").saveAs("jwt"))
+        .check(jsonPath("$.refreshToken").saveAs("refreshToken"))
+    ).exec(session => session.set("tokenIssuedAt", System.currentTimeMillis))
+  }
+
+  // Patron actions
+
+  val search = feed(searchTerms)
+    .exec(
+      http("Search books")
+        .get("/books/search")
+        .queryParam("q", "#{q}")
+        .queryParam("size", "20")
+        .header("Authorization", bearer)
+        .check(status.is(200))
+        .check(jsonPath("$[*].id").findRandom.optional.saveAs("bookId"))
+    )
+
+  val checkAvailability = doIfOrElse(session => session.contains("bookId"))(
+    exec(
+      http("Available copies of book")
+        .get("/copies/book/#{bookId}/available")
+        .header("Authorization", bearer)
+        .check(status.in(200, 204))
+        .check(jsonPath("$[*].id").findRandom.optional.saveAs("copyId"))
+    )
+  )(search)
+
+  // another patron may have taken the copy since it was listed, which the API answers with 400
+  val reserve = doIfOrElse(session => session.contains("copyId"))(
+    exec(
+      http("Reserve copy")
+        .post("/reservations")
+        .queryParam("copyId", "#{copyId}")
+        .header("Authorization", bearer)
+        .check(status.in(200, 400))
+    ).exec(session => session.remove("copyId"))
+  )(checkAvailability)
+
+  val myLoans = exec(
+    http("My active loans")
+      .get("/loans/me/active")
+      .header("Authorization", bearer)
+      .check(status.in(200, 204))
+  )
+
+  val myReservations = exec(
+    http("My active reservations")
+      .get("/reservations/me/active")
+      .header("Authorization", bearer)
+      .check(status.in(200, 204))
+  )
+
+  val patronVisit = scenario("Patron")
+    .feed(patronAccounts)
+    .exec(login)
+    .during(visit) {
+      exec(refreshIfStale)
+        .randomSwitch(
+          50.0 -> search,
+          25.0 -> checkAvailability,
+          5.0 -> reserve,
+          10.0 -> myLoans,
+          10.0 -> myReservations
+        )
+        .pause(2.seconds, 10.seconds)
+    }
+
+  // Librarian actions
+
+  val whoAmI = exec(
+    http("Who am I")
+      .get("/users/me")
+      .header("Authorization", bearer)
+      .check(status.is(200))
+      .check(jsonPath("$.libraryId").ofType[Int].saveAs("libraryId"))
+  ).exitHereIfFailed
+
+  val reservationsDashboard = exec(
+    http("Library reservations")
+      .get("/reservations/library/#{libraryId}")
+      .header("Authorization", bearer)
+      .check(status.in(200, 204))
+      .check(jsonPath("$[?(@.status == 'WAITING')]").ofType[Map[String, Any]].findRandom.optional.saveAs("waiting"))
+  )
+
+  val loansDashboard = exec(
+    http("Library loans")
+      .get("/loans/library/#{libraryId}")
+      .header("Authorization", bearer)
+      .check(status.in(200, 204))
+      .check(jsonPath("$[?(@.returnDate == null)].id").findRandom.optional.saveAs("loanId"))
+  )
+
+  // the patron picks up a reserved copy; a concurrent return or expiry turns it into a 400
+  val lend = doIfOrElse(session => session.contains("waiting"))(
+    exec(session => {
+      val waiting = session("waiting").as[Map[String, Any]]
+      session.remove("waiting").set("borrowerId", waiting("userId")).set("borrowedCopyId", waiting("copyId"))
+    }).exec(
+      http("Create loan")
+        .post("/loans")
+        .queryParam("userId", "#{borrowerId}")
+        .queryParam("copyId", "#{borrowedCopyId}")
+        .header("Authorization", bearer)
+        .check(status.in(202, 400))
+    )
+  )(reservationsDashboard)
+
+  val takeReturn = doIfOrElse(session => session.contains("loanId"))(
+    exec(
+      http("Return loan")
+        .post("/loans/#{loanId}/return")
+        .header("Authorization", bearer)
+        .check(status.in(200, 400))
+    ).exec(session => session.remove("loanId"))
+  )(loansDashboard)
+
+  val extend = doIfOrElse(session => session.contains("loanId"))(
+    exec(
+      http("Extend loan")
+        .post("/loans/#{loanId}/extend")
+        .queryParam("returnDate", _ => LocalDate.now.plusDays(30).toString)
+        .header("Authorization", bearer)
+        .check(status.in(200, 400, 404))
+    )
+  )(loansDashboard)
+
+  val librarianShift = scenario("Librarian")
+    .feed(librarianAccounts)
+    .exec(login)
+    .exec(whoAmI)
+    .during(visit) {
+      exec(refreshIfStale)
+        .randomSwitch(
+          30.0 -> reservationsDashboard,
+          25.0 -> loansDashboard,
+          20.0 -> lend,
+          15.0 -> takeReturn,
+          10.0 -> extend
+        )
+        .pause(5.seconds, 20.seconds)
+    }
+
+  def slo(request: String, p95: Int, p99: Int) = Seq(
+    details(request).responseTime.percentile(95).lt(Integer.getInteger(s"slo.$request.p95", p95)),
+    details(request).responseTime.percentile(99).lt(Integer.getInteger(s"slo.$request.p99", p99))
+  )
+
+  val sloAssertions = Seq(
+    slo("Login", 300, 800),
+    slo("Refresh token", 100, 300),
+    slo("Search books", 200, 500),
+    slo("Available copies of book", 100, 300),
+    slo("Reserve copy", 200, 500),
+    slo("My active loans", 100, 300),
+    slo("My active reservations", 100, 300),
+    slo("Library reservations", 300, 800),
+    slo("Library loans", 500, 1500),
+    slo("Create loan", 200, 500),
+    slo("Return loan", 200, 500),
+    slo("Extend loan", 200, 500)
+  ).flatten :+ global.failedRequests.percent.lt(1.0)
+
+  setUp(
+    patronVisit.inject(
+      rampConcurrentUsers(0).to(patrons).during(rampUp),
+      constantConcurrentUsers(patrons).during(visit)
+    ),
+    librarianShift.inject(
+      rampConcurrentUsers(0).to(librarians).during(rampUp),
+      constantConcurrentUsers(librarians).during(visit)
+    )
+  ).protocols(httpProtocol)
+    .assertions(sloAssertions: _*)
+}
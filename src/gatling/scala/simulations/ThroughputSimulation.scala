@@ -0,0 +1,68 @@
+package simulations
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * Open-model stair test for finding the highest request rate the app sustains while p99 stays under a fixed bound.
+ * Run it twice against the same data, once with VIRTUAL_THREADS_ENABLED=false and once with true, and compare the
+ * last stair whose p99 stayed below the bound in the two reports.
+ *
+ *   ./gradlew gatlingRun --simulation simulations.ThroughputSimulation -DstartRps=50 -DstepRps=50 -Dsteps=10
+ */
+class ThroughputSimulation extends Simulation {
+
+  val startRps = Integer.getInteger("startRps", 50).toDouble
+  val stepRps = Integer.getInteger("stepRps", 50).toDouble
+  val steps = Integer.getInteger("steps", 10)
+  val stepDuration = Integer.getInteger("stepSeconds", 30).seconds
+  val p99BoundMs = Integer.getInteger("p99Ms", 250)
+
+  val httpProtocol = http
+    .baseUrl("http://localhost:8080")
+    .acceptHeader("application/json")
+    .contentTypeHeader("application/json")
+    .shareConnections
+
+  val login = exec(
+    http("Login")
+      .post("/auth/login")
+      .body(StringBody("""{ "email": "user@example.com", "password": "user" }""")).asJson
+      .check(status.is(200))
+      .check(jsonPath("$.accessToken").saveAs("jwt"))
+  )
+
+  def authenticatedGet(name: String, path: String) =
+    http(name)
+      .get(path)
+      .header("Authorization", session => "Bearer " + session("jwt").as[String])
+      .check(status.in(200, 204))
+
+  val browse = exec(authenticatedGet("Get book", "/books/1"))
+    .exec(authenticatedGet("Available copies of book", "/copies/book/1/available"))
+    .exec(authenticatedGet("My loans", "/loans/me"))
+    .exec(authenticatedGet("My reservations", "/reservations/me/active"))
+    .exec(authenticatedGet("Search books", "/books/search?q=great&size=20"))
+
+  val scn = scenario("Patron browsing at increasing arrival rate")
+    .exec(login)
+    .repeat(10) {
+      exec(browse)
+    }
+
+  // Every user sends ~50 requests (login + 10 x 5 reads), so users/s = requests/s / 50.
+  setUp(
+    scn.inject(
+      incrementUsersPerSec(stepRps / 50)
+        .times(steps)
+        .eachLevelLasting(stepDuration)
+        .separatedByRampsLasting(5.seconds)
+        .startingFrom(startRps / 50)
+    )
+  ).protocols(httpProtocol)
+    .assertions(
+      global.responseTime.percentile(99).lt(p99BoundMs),
+      global.failedRequests.percent.lt(1)
+    )
+}
@@ -0,0 +1,77 @@
+package simulations
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * Substring search over users and libraries. Seed the database with src/gatling/resources/sql/users_1m.sql first.
+ * For the "before" run drop the V12 trigram indexes (idx_users_*_trgm, idx_libraries_*_trgm), for the "after" run
+ * recreate them; src/gatling/resources/sql/users_search_before_after.sql shows the matching query plans.
+ */
+class UserLibrarySearchSimulation extends Simulation {
+
+  val httpProtocol = http
+    .baseUrl("http://localhost:8080")
+    .acceptHeader("application/json")
+    .contentTypeHeader("application/json")
+
+  val userQueries = Array(
+    Map("param" -> "email", "value" -> "nowak.12"),
+    Map("param" -> "email", "value" -> "@example.org"),
+    Map("param" -> "name", "value" -> "oska"),
+    Map("param" -> "name", "value" -> "ann"),
+    Map("param" -> "email", "value" -> "kowalski.99"),
+    Map("param" -> "name", "value" -> "zofia")
+  )
+
+  val libraryQueries = Array(
+    Map("param" -> "name", "value" -> "central"),
+    Map("param" -> "address", "value" -> "market sq 1"),
+    Map("param" -> "address", "value" -> "krakow"),
+    Map("param" -> "name", "value" -> "music 12")
+  )
+
+  val login = exec(
+    http("Login")
+      .post("/auth/login")
+      .body(StringBody("""{ "email": "admin@example.com", "password": "admin" }""")).asJson
+      .check(status.is(200))
+      .check(jsonPath("$.accessToken").saveAs("jwt"))
+  )
+
+  val userSearch = feed(userQueries.circular)
+    .exec(
+      http("User search")
+        .get("/users/search")
+        .queryParam("#{param}", "#{value}")
+        .queryParam("size", "20")
+        .header("Authorization", session => "Bearer " + session("jwt").as[String])
+        .check(status.in(200, 204))
+    )
+
+  val librarySearch = feed(libraryQueries.circular)
+    .exec(
+      http("Library search")
+        .get("/libraries/search")
+        .queryParam("#{param}", "#{value}")
+        .queryParam("size", "20")
+        .header("Authorization", session => "Bearer " + session("jwt").as[String])
+        .check(status.in(200, 204))
+    )
+
+  val scn = scenario("User and library substring search")
+    .exec(login)
+    .repeat(20) {
+      exec(userSearch)
+        .exec(librarySearch)
+    }
+
+  setUp(
+    scn.inject(rampUsers(20).during(10.seconds))
+  ).protocols(httpProtocol)
+    .assertions(
+      details("User search").responseTime.percentile(99).lt(300),
+      details("Library search").responseTime.percentile(99).lt(100)
+    )
+}
@@ -0,0 +1,81 @@
+package com.example.library.benchmark;
+
+import com.example.library.search.BookIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Query latency of {@link BookIndex} over a synthetic catalog. SampleTime mode reports the
+ * p50/p99/p99.9 percentiles; run with {@code ./gradlew jmh -Pjmh.includes=BookIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class BookIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "the", "great", "gatsby", "war", "peace", "pride", "prejudice", "crime", "punishment", "old",
+            "man", "sea", "brave", "new", "world", "animal", "farm", "catcher", "rye", "lord", "rings",
+            "hobbit", "dune", "foundation", "empire", "night", "day", "house", "garden", "river", "winter",
+            "summer", "shadow", "light", "stone", "fire", "ice", "storm", "city", "island", "kingdom"
+    };
+    private static final String[] NAMES = {
+            "tolkien", "austen", "orwell", "tolstoy", "dostoevsky", "hemingway", "huxley", "herbert",
+            "asimov", "fitzgerald", "salinger", "sienkiewicz", "mickiewicz", "lem", "szymborska", "tokarczuk"
+    };
+    private static final String[] QUERIES = {
+            "great gats", "war and peace", "tolk", "dune herbert", "shadow kingdom", "9780000000042",
+            "lem", "the", "winter night", "asim found"
+    };
+
+    @Param({"100000", "1000000"})
+    private int books;
+
+    private BookIndex index;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new BookIndex(3, 6, books);
+        for (int id = 1; id <= books; id++) {
+            int words = 1 + random.nextInt(5);
+            StringBuilder title = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                title.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            String author = NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)];
+            index.add(id, title.toString(), author, String.format("978%010d", id));
+        }
+        index.trimToSize();
+    }
+
+    @Benchmark
+    public BookIndex.SearchHits search() {
+        return index.search(QUERIES[Math.floorMod(next.getAndIncrement(), QUERIES.length)], 0, 20);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BookIndex.SearchHits searchConcurrently() {
+        return index.search(QUERIES[Math.floorMod(next.getAndIncrement(), QUERIES.length)], 0, 20);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.library.benchmark;
+
+import com.example.library.dto.LoanDTO;
+import com.example.library.dto.ReservationDTO;
+import com.example.library.model.Loan;
+import com.example.library.model.Reservation;
+import com.example.library.service.LoanService;
+import com.example.library.service.NotificationService;
+import com.example.library.service.ReservationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Entity to DTO mapping of a page of loans and reservations, and building the notification mails
+ * that the scheduled jobs send for each of them. Run with
+ * {@code ./gradlew jmh -Pjmh.includes=DtoMappingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class DtoMappingBenchmark {
+
+    private static final int PAGE = 100;
+
+    private List<Loan> loans;
+    private List<Reservation> reservations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        loans = LongStream.rangeClosed(1, PAGE).mapToObj(Fixtures::loan).toList();
+        reservations = LongStream.rangeClosed(1, PAGE).mapToObj(Fixtures::reservation).toList();
+    }
+
+    @Benchmark
+    public List<LoanDTO> loans() {
+        return loans.stream().map(LoanService::toDto).toList();
+    }
+
+    @Benchmark
+    public List<ReservationDTO> reservations() {
+        return reservations.stream().map(ReservationService::toDto).toList();
+    }
+
+    @Benchmark
+    public List<SimpleMailMessage> loanSuccessMessages() {
+        return loans.stream().map(loan -> NotificationService.loanSuccessMessage(loan.getUser().getEmail(), loan)).toList();
+    }
+
+    @Benchmark
+    public List<SimpleMailMessage> acceptedReservationMessages() {
+        return reservations.stream()
+                .map(reservation -> NotificationService.acceptedReservationMessage(reservation.getUser().getEmail(), reservation))
+                .toList();
+    }
+}
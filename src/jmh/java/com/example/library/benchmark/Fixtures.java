@@ -0,0 +1,50 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Book;
+import com.example.library.model.Copy;
+import com.example.library.model.CopyStatus;
+import com.example.library.model.Library;
+import com.example.library.model.LibraryStatus;
+import com.example.library.model.Loan;
+import com.example.library.model.Reservation;
+import com.example.library.model.ReservationStatus;
+import com.example.library.model.User;
+import com.example.library.model.UserRole;
+
+import java.time.LocalDate;
+
+final class Fixtures {
+
+    static final String JWT_SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@example.com")
+                .name("Jan")
+                .surname("Kowalski")
+                .password("{noop}password")
+                .role(UserRole.USER)
+                .build();
+    }
+
+    static Copy copy(long id) {
+        Book book = new Book("The Lord of the Rings " + id, "J.R.R. Tolkien", String.format("978%010d", id));
+        book.setId(id);
+        Library library = new Library(id % 20, "Biblioteka Miejska " + id % 20, "ul. Długa " + id % 20, LibraryStatus.ACTIVE);
+        return new Copy(id, book, library, CopyStatus.BORROWED);
+    }
+
+    static Loan loan(long id) {
+        LocalDate start = LocalDate.of(2025, 1, 1).plusDays(id % 365);
+        return new Loan(id, user(id % 500), copy(id), start, start.plusDays(14), null);
+    }
+
+    static Reservation reservation(long id) {
+        LocalDate created = LocalDate.of(2025, 1, 1).plusDays(id % 365);
+        return new Reservation(id, user(id % 500), copy(id), created, created.plusDays(2), ReservationStatus.WAITING);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.library.benchmark;
+
+import com.example.library.dto.LoanDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the {@code GET /loans} payload of 10k loans. {@code perRequestMapper} is the old path
+ * (a fresh mapper and a materialized list), {@code sharedMapper} reuses one default mapper, and
+ * {@code streamedBlackbird} is what the endpoint does now. Run with
+ * {@code ./gradlew jmh -Pjmh.includes=LoanDtoSerializationBenchmark} and compare the gc.alloc.rate.norm
+ * column with {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class LoanDtoSerializationBenchmark {
+
+    private static final int LOANS = 10_000;
+
+    private List<LoanDTO> loans;
+    private ObjectMapper sharedMapper;
+    private ObjectWriter blackbirdWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        loans = new ArrayList<>(LOANS);
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < LOANS; i++) {
+            LocalDate startDate = start.plusDays(i % 365);
+            loans.add(new LoanDTO((long) i, (long) (i % 500), "user" + (i % 500) + "@example.com",
+                    (long) (i % 2000), "Book title " + (i % 2000), (long) (i % 20), "Library " + (i % 20),
+                    startDate, startDate.plusDays(14), i % 3 == 0 ? null : startDate.plusDays(10)));
+        }
+
+        sharedMapper = defaultMapper();
+
+        ObjectMapper blackbird = defaultMapper()
+                .registerModule(new SimpleModule().addSerializer(LocalDate.class,
+                        new LocalDateSerializer(DateTimeFormatter.ISO_LOCAL_DATE)))
+                .registerModule(new BlackbirdModule());
+        blackbirdWriter = blackbird.writerFor(LoanDTO.class);
+    }
+
+    @Benchmark
+    public byte[] perRequestMapper() throws IOException {
+        return defaultMapper().writeValueAsBytes(new ArrayList<>(loans));
+    }
+
+    @Benchmark
+    public byte[] sharedMapper() throws IOException {
+        return sharedMapper.writeValueAsBytes(loans);
+    }
+
+    @Benchmark
+    public void streamedBlackbird() throws IOException {
+        try (SequenceWriter sequence = blackbirdWriter.writeValuesAsArray(OutputStream.nullOutputStream())) {
+            for (LoanDTO loan : loans) {
+                sequence.write(loan);
+            }
+        }
+    }
+
+    private static ObjectMapper defaultMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.library.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.example.library.logging.DebugDiscardingAsyncAppender;
+import com.example.library.logging.SamplingTurboFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What logging costs the request thread when web, security and SQL loggers are at DEBUG: one
+ * invocation writes the lines a typical authenticated {@code GET /loans/me/active} produces. {@code sync}
+ * is the old configuration (file appender on the calling thread, every statement logged), {@code async}
+ * the bounded queue with DEBUG shedding and 1-in-10 SQL sampling. Run with
+ * {@code ./gradlew jmh -Pjmh.includes=LoggingBenchmark}; SampleTime reports the p99 per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class LoggingBenchmark {
+
+    @Param({"sync", "async"})
+    public String mode;
+
+    private LoggerContext context;
+    private Path logFile;
+    private Logger security;
+    private Logger web;
+    private Logger sql;
+    private Logger service;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws Exception {
+        context = new LoggerContext();
+        logFile = Files.createTempFile("logging-benchmark", ".log");
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (mode.equals("async")) {
+            DebugDiscardingAsyncAppender async = new DebugDiscardingAsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(1638);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.setLoggerPrefix("org.hibernate.SQL");
+            sampling.setRate(10);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.DEBUG);
+        root.addAppender(appender);
+
+        security = context.getLogger("org.springframework.security.web.FilterChainProxy");
+        web = context.getLogger("org.springframework.web.servlet.DispatcherServlet");
+        sql = context.getLogger("org.hibernate.SQL");
+        service = context.getLogger("com.example.library.service.LoanService");
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() throws Exception {
+        context.stop();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public void authenticatedRequest() {
+        for (int filter = 1; filter <= 12; filter++) {
+            security.debug("Invoking {} ({}/{})", "SecurityFilter" + filter, filter, 12);
+        }
+        security.debug("Secured GET /loans/me/active");
+        web.debug("GET \"/loans/me/active\", parameters={}", "{}");
+        web.debug("Mapped to {}", "com.example.library.controller.LoanController#getMyActiveLoans()");
+        for (int statement = 0; statement < 3; statement++) {
+            sql.debug("select l1_0.id,l1_0.copy_id,l1_0.end_date,l1_0.return_date,l1_0.start_date,l1_0.user_id "
+                    + "from loans l1_0 where l1_0.user_id=? and l1_0.return_date is null");
+        }
+        web.debug("Using 'application/json', given [*/*] and supported [application/json]");
+        web.debug("Writing [{}]", "[LoanDTO[id=1, userId=5, ...]]");
+        service.info("Returned {} active loans", 3);
+        web.debug("Completed 200 OK");
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.library.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import com.example.library.exception.ErrorReporter;
+import com.example.library.exception.GlobalExceptionHandler;
+import com.example.library.exception.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Throughput of {@code GET /books/{id}} when every id is missing, e.g. a scraper walking ids. {@code stackTrace}
+ * is the old path: an exception that fills in its stack trace through the whole dispatcher and is logged at
+ * ERROR on every request. {@code stackless} is {@link NotFoundException} as it is now, handled by
+ * {@link GlobalExceptionHandler}, which reuses the exception's body and only counts it. Logs go to a
+ * temporary file. Run with {@code ./gradlew jmh -Pjmh.includes=NotFoundBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class NotFoundBenchmark {
+
+    @Param({"stackTrace", "stackless"})
+    public String mode;
+
+    private MockMvc mockMvc;
+    private Path logFile;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws Exception {
+        logFile = Files.createTempFile("not-found-benchmark", ".log");
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(file);
+        context.getLogger("com.example.library").setLevel(Level.ERROR);
+        context.getLogger(ErrorReporter.class).setLevel(Level.WARN);
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", new SimpleMeterRegistry());
+        beanFactory.addBean("errorReporter", new ErrorReporter(beanFactory.getBeanProvider(MeterRegistry.class),
+                Clock.systemUTC(), 10, Duration.ofMinutes(1), 100, 100));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new Books(mode.equals("stackless")))
+                .setControllerAdvice(new GlobalExceptionHandler(beanFactory.getBeanProvider(ErrorReporter.class)),
+                        new LegacyExceptionHandler())
+                .build();
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() throws Exception {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public int missingBook() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/{bookId}", 42)).andReturn();
+        return result.getResponse().getStatus();
+    }
+
+    @RestController
+    static class Books {
+
+        private final boolean stackless;
+
+        Books(boolean stackless) {
+            this.stackless = stackless;
+        }
+
+        @GetMapping("/books/{bookId}")
+        public Map<String, String> getBook(@PathVariable Long bookId) {
+            if (stackless) {
+                throw new NotFoundException("Book with ID " + bookId + " does not exist");
+            }
+            throw new LegacyNotFoundException("Book with ID " + bookId + " does not exist");
+        }
+    }
+
+    static class LegacyNotFoundException extends RuntimeException {
+        LegacyNotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    // GlobalExceptionHandler.handleNotFound before business exceptions became stackless
+    @ControllerAdvice
+    static class LegacyExceptionHandler {
+
+        private static final org.slf4j.Logger logger = LoggerFactory.getLogger("com.example.library.exception.GlobalExceptionHandler");
+
+        @ExceptionHandler(LegacyNotFoundException.class)
+        public ResponseEntity<Map<String, String>> handleNotFound(LegacyNotFoundException ex) {
+            logger.error("Not Found: {}", ex.getMessage());
+            return ResponseEntity
+                    .status(404)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
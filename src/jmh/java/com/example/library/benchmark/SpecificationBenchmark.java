@@ -0,0 +1,127 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Book;
+import com.example.library.model.User;
+import com.example.library.model.UserRole;
+import com.example.library.specification.BookSpecification;
+import com.example.library.specification.UserSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code Specification} filters behind the book and user search endpoints, run through Spring
+ * Data and Hibernate against an in-memory H2 catalog. {@code *Criteria} only builds and translates
+ * the query, {@code *Query} also executes it. Run with
+ * {@code ./gradlew jmh -Pjmh.includes=SpecificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class SpecificationBenchmark {
+
+    private static final int BOOKS = 10_000;
+    private static final int USERS = 1_000;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private SimpleJpaRepository<Book, Long> books;
+    private SimpleJpaRepository<User, Long> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1", "sa", ""));
+        factory.setPackagesToScan("com.example.library.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.cache.use_second_level_cache", "false",
+                "hibernate.jdbc.batch_size", "500"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+
+        entityManager.getTransaction().begin();
+        for (long id = 1; id <= BOOKS; id++) {
+            Book book = Fixtures.copy(id).getBook();
+            book.setId(null);
+            entityManager.persist(book);
+        }
+        for (long id = 1; id <= USERS; id++) {
+            User user = Fixtures.user(id);
+            user.setId(null);
+            user.setName(id % 2 == 0 ? "Anna" : "Jan");
+            entityManager.persist(user);
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        books = new SimpleJpaRepository<>(Book.class, entityManager);
+        users = new SimpleJpaRepository<>(User.class, entityManager);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public TypedQuery<Book> bookSearchCriteria() {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = builder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.where(bookSearch().toPredicate(root, query, builder));
+        return entityManager.createQuery(query);
+    }
+
+    @Benchmark
+    public List<Book> bookSearchQuery() {
+        List<Book> result = books.findAll(bookSearch());
+        entityManager.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<User> userSearchQuery() {
+        List<User> result = users.findAll(Specification.where(UserSpecification.hasNameLike("ann"))
+                .and(UserSpecification.hasEmailLike("user1"))
+                .and(UserSpecification.hasRole(UserRole.USER)));
+        entityManager.clear();
+        return result;
+    }
+
+    private static Specification<Book> bookSearch() {
+        return Specification.where(BookSpecification.hasTitle("rings 42"))
+                .and(BookSpecification.hasAuthor("tolkien"))
+                .and(BookSpecification.hasIsbn(null));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.library.cache;
+
+/**
+ * Tells other nodes that their cached copy of an entity is stale. A {@code null} id stands for
+ * every instance of the entity, a {@code null} entity for everything cached on the node.
+ */
+public record CacheInvalidation(String entity, Long id) {
+
+    public static CacheInvalidation of(Class<?> entity, Long id) {
+        return new CacheInvalidation(entity.getSimpleName(), id);
+    }
+
+    public static CacheInvalidation all(String entity) {
+        return new CacheInvalidation(entity, null);
+    }
+
+    public static CacheInvalidation everything() {
+        return new CacheInvalidation(null, null);
+    }
+
+    public boolean concerns(Class<?> entity) {
+        return this.entity == null || this.entity.equals(entity.getSimpleName());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.library.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wire format of the invalidation bus: {@code origin;Book:1,2,3;User:*} where {@code *} alone
+ * means flush everything. Ids of one entity share a single group to keep NOTIFY payloads small.
+ */
+public final class InvalidationMessages {
+
+    private static final String WILDCARD = "*";
+
+    private InvalidationMessages() {
+    }
+
+    public record Message(String origin, List<CacheInvalidation> invalidations) {
+    }
+
+    /**
+     * Drops duplicates and collapses an entity to a single entity-wide invalidation once more than
+     * {@code maxIdsPerEntity} of its ids are pending.
+     */
+    public static List<CacheInvalidation> coalesce(Collection<CacheInvalidation> invalidations, int maxIdsPerEntity) {
+        Map<String, Set<Long>> idsByEntity = new LinkedHashMap<>();
+        Set<String> wholeEntities = new LinkedHashSet<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            String entity = invalidation.entity();
+            if (entity == null) {
+                return List.of(CacheInvalidation.everything());
+            }
+            if (wholeEntities.contains(entity)) {
+                continue;
+            }
+            Set<Long> ids = idsByEntity.computeIfAbsent(entity, key -> new LinkedHashSet<>());
+            if (invalidation.id() == null || (ids.size() >= maxIdsPerEntity && !ids.contains(invalidation.id()))) {
+                wholeEntities.add(entity);
+                idsByEntity.remove(entity);
+            } else {
+                ids.add(invalidation.id());
+            }
+        }
+
+        List<CacheInvalidation> coalesced = new ArrayList<>();
+        wholeEntities.forEach(entity -> coalesced.add(CacheInvalidation.all(entity)));
+        idsByEntity.forEach((entity, ids) -> ids.forEach(id -> coalesced.add(new CacheInvalidation(entity, id))));
+        return coalesced;
+    }
+
+    public static List<String> encode(String origin, List<CacheInvalidation> invalidations, int maxLength) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(origin);
+        CacheInvalidation previous = null;
+        for (CacheInvalidation invalidation : invalidations) {
+            String token = token(previous, invalidation);
+            if (previous != null && payload.length() + token.length() > maxLength) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(origin);
+                token = token(null, invalidation);
+            }
+            payload.append(token);
+            previous = invalidation;
+        }
+        if (previous != null) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    public static Message decode(String payload) {
+        String[] groups = payload.split(";");
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        for (int i = 1; i < groups.length; i++) {
+            String group = groups[i];
+            if (group.equals(WILDCARD)) {
+                invalidations.add(CacheInvalidation.everything());
+                continue;
+            }
+            int separator = group.indexOf(':');
+            String entity = group.substring(0, separator);
+            String ids = group.substring(separator + 1);
+            if (ids.equals(WILDCARD)) {
+                invalidations.add(CacheInvalidation.all(entity));
+                continue;
+            }
+            for (String id : ids.split(",")) {
+                invalidations.add(new CacheInvalidation(entity, Long.parseLong(id)));
+            }
+        }
+        return new Message(groups[0], invalidations);
+    }
+
+    private static String token(CacheInvalidation previous, CacheInvalidation invalidation) {
+        if (invalidation.entity() == null) {
+            return ";" + WILDCARD;
+        }
+        if (invalidation.id() == null) {
+            return ";" + invalidation.entity() + ":" + WILDCARD;
+        }
+        if (previous != null && previous.id() != null && invalidation.entity().equals(previous.entity())) {
+            return "," + invalidation.id();
+        }
+        return ";" + invalidation.entity() + ":" + invalidation.id();
+    }
+}
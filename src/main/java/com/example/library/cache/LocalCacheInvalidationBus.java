@@ -0,0 +1,27 @@
+package com.example.library.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport for a single node. Invalidations exist for other nodes only: the writing node already
+ * keeps its second-level cache and search index current, so handing its own messages back would
+ * just evict fresh entries and re-index the book. With one node there is nobody else, and nothing is
+ * delivered. Run more than one replica with {@code app.cache.invalidation.transport=postgres}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "local", matchIfMissing = true)
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        // no other node to tell
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> subscriber) {
+        // nothing is ever delivered, so there is nothing to subscribe to
+    }
+}
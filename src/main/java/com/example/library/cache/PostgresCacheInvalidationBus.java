@@ -0,0 +1,205 @@
+package com.example.library.cache;
+
+import jakarta.annotation.PostConstruct;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidations between nodes over Postgres {@code LISTEN/NOTIFY}. Published messages are
+ * buffered for {@code coalesce-window} and sent as one NOTIFY per batch; every node listens on its
+ * own connection outside the pool and ignores what it sent itself. NOTIFY is fire-and-forget, so
+ * after the listening connection drops, subscribers get a full flush once it is re-established.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "postgres")
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+
+    // NOTIFY payloads are limited to 8000 bytes
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long VALIDATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+    private final Set<CacheInvalidation> pending = new LinkedHashSet<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final Duration coalesceWindow;
+    private final int maxIdsPerEntity;
+    private final Duration reconnectDelay;
+
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Thread listener = new Thread(this::listen, "cache-invalidation-listener");
+    private volatile boolean running = true;
+
+    public PostgresCacheInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            @Value("${app.cache.invalidation.channel:cache_invalidation}") String channel,
+            @Value("${app.cache.invalidation.coalesce-window:PT0.1S}") Duration coalesceWindow,
+            @Value("${app.cache.invalidation.max-ids-per-entity:100}") int maxIdsPerEntity,
+            @Value("${app.cache.invalidation.reconnect-delay:PT1S}") Duration reconnectDelay) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.coalesceWindow = coalesceWindow;
+        this.maxIdsPerEntity = maxIdsPerEntity;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @PostConstruct
+    void start() {
+        listener.setDaemon(true);
+        listener.start();
+        sender.scheduleWithFixedDelay(this::send, coalesceWindow.toMillis(), coalesceWindow.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        synchronized (pending) {
+            pending.add(invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    void send() {
+        List<CacheInvalidation> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = InvalidationMessages.coalesce(pending, maxIdsPerEntity);
+            pending.clear();
+        }
+
+        List<String> payloads = InvalidationMessages.encode(nodeId, batch, MAX_PAYLOAD_LENGTH);
+        for (int i = 0; i < payloads.size(); i++) {
+            try {
+                jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payloads.get(i));
+            } catch (DataAccessException e) {
+                log.warn("Could not send cache invalidations, retrying with the next batch: {}", e.getMessage());
+                List<CacheInvalidation> unsent = new ArrayList<>();
+                payloads.subList(i, payloads.size())
+                        .forEach(payload -> unsent.addAll(InvalidationMessages.decode(payload).invalidations()));
+                synchronized (pending) {
+                    pending.addAll(unsent);
+                }
+                return;
+            }
+        }
+    }
+
+    private void listen() {
+        boolean missedMessages = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (missedMessages) {
+                    log.warn("Cache invalidation listener reconnected, flushing all caches");
+                    deliver(CacheInvalidation.everything());
+                    missedMessages = false;
+                }
+                receive(connection);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                missedMessages = true;
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {}: {}", reconnectDelay, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        long lastActivity = System.nanoTime();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+            if (notifications == null || notifications.length == 0) {
+                // a half-open socket never fails the poll, so check the connection when it has been quiet
+                if (System.nanoTime() - lastActivity > VALIDATION_INTERVAL_NANOS) {
+                    if (!connection.isValid(5)) {
+                        throw new SQLException("Listening connection is no longer valid");
+                    }
+                    lastActivity = System.nanoTime();
+                }
+                continue;
+            }
+            lastActivity = System.nanoTime();
+            for (PGNotification notification : notifications) {
+                InvalidationMessages.Message message = InvalidationMessages.decode(notification.getParameter());
+                if (!message.origin().equals(nodeId)) {
+                    message.invalidations().forEach(this::deliver);
+                }
+            }
+        }
+    }
+
+    private void deliver(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> subscriber : subscribers) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation subscriber failed for {}", invalidation, e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        sender.shutdown();
+        sender.awaitTermination(5, TimeUnit.SECONDS);
+        send();
+        listener.interrupt();
+        listener.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
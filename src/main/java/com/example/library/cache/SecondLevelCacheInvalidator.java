@@ -0,0 +1,52 @@
+package com.example.library.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Evicts Hibernate second-level cache entries named by invalidations from other nodes. Local writes
+ * keep the cache current on their own through the read-write strategy.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBus invalidationBus;
+
+    private Map<String, Class<?>> cachedEntities;
+
+    @PostConstruct
+    void subscribe() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        cachedEntities = entityManagerFactory.getMetamodel().getEntities().stream()
+                .filter(type -> sessionFactory.getMappingMetamodel()
+                        .getEntityDescriptor(type.getJavaType()).canWriteToCache())
+                .collect(Collectors.toUnmodifiableMap(EntityType::getName, EntityType::getJavaType));
+
+        invalidationBus.subscribe(this::evict);
+    }
+
+    void evict(CacheInvalidation invalidation) {
+        if (invalidation.entity() == null) {
+            entityManagerFactory.getCache().evictAll();
+            return;
+        }
+        Class<?> entityClass = cachedEntities.get(invalidation.entity());
+        if (entityClass == null) {
+            return;
+        }
+        if (invalidation.id() == null) {
+            entityManagerFactory.getCache().evict(entityClass);
+        } else {
+            entityManagerFactory.getCache().evict(entityClass, invalidation.id());
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.library.component;
 
+import com.example.library.metrics.LibraryMetrics;
 import com.example.library.model.User;
 import com.example.library.repository.UserRepository;
 import com.example.library.service.JwtService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +29,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final LibraryMetrics metrics;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,23 +41,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            String email = jwtService.extractEmail(token);
+            Observation.createNotStarted("library.jwt.authentication", observationRegistry)
+                    .contextualName("jwt authentication")
+                    .observe(() -> authenticate(token));
+        }
 
-            if (email != null && jwtService.isTokenValid(token, email)) {
-                User user = userRepository.findByEmailAndActiveTrue(email)
-                        .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        filterChain.doFilter(request, response);
+    }
 
-                List<GrantedAuthority> authorities = Collections.singletonList(
-                        new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
-                );
+    private void authenticate(String token) {
+        String email = metrics.jwtValidation(() -> {
+            String subject = jwtService.extractEmail(token);
+            return subject != null && jwtService.isTokenValid(token, subject) ? subject : null;
+        });
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(user.getEmail(), null, authorities);
+        if (email != null) {
+            User user = userRepository.findByEmailAndActiveTrue(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
-        }
+            List<GrantedAuthority> authorities = Collections.singletonList(
+                    new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
+            );
 
-        filterChain.doFilter(request, response);
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(user.getEmail(), null, authorities);
+
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
     }
-}
\ No newline at end of file
+}
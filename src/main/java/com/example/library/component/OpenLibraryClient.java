@@ -0,0 +1,42 @@
+package com.example.library.component;
+
+import com.example.library.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class OpenLibraryClient {
+
+    private final RestTemplate openLibraryRestTemplate;
+    private final CircuitBreaker openLibraryCircuitBreaker;
+    private final Bulkhead openLibraryBulkhead;
+
+    public String fetchBookByIsbn(String isbn) {
+        Supplier<String> call = () ->
+                openLibraryRestTemplate.getForObject("/api/volumes/brief/isbn/{isbn}.json", String.class, isbn);
+
+        // The circuit breaker sits inside the bulkhead, so rejections caused by a full bulkhead
+        // are not counted as upstream failures.
+        Supplier<String> guarded = Bulkhead.decorateSupplier(openLibraryBulkhead,
+                CircuitBreaker.decorateSupplier(openLibraryCircuitBreaker, call));
+
+        try {
+            return guarded.get();
+        } catch (CallNotPermittedException e) {
+            throw new ServiceUnavailableException("Open Library is currently unavailable. Please try again later.");
+        } catch (BulkheadFullException e) {
+            throw new ServiceUnavailableException("Too many concurrent Open Library lookups. Please try again later.");
+        } catch (ResourceAccessException e) {
+            throw new ServiceUnavailableException("Open Library did not respond in time.");
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package com.example.library.config;
 
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.Clock;
 import java.time.ZoneId;
@@ -11,11 +9,6 @@ import java.time.ZoneId;
 @Configuration
 public class AppConfig {
 
-    @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
-    }
-
     @Bean
     public Clock clock() {
         return Clock.system(ZoneId.of("Europe/Warsaw"));
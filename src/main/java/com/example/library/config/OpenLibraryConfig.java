@@ -0,0 +1,124 @@
+package com.example.library.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class OpenLibraryConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenLibraryConfig.class);
+
+    private static final String NAME = "openLibrary";
+
+    @Bean
+    public RestTemplate openLibraryRestTemplate(
+            RestTemplateBuilder builder,
+            @Value("${openlibrary.base-url:http://openlibrary.org}") String baseUrl,
+            @Value("${openlibrary.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${openlibrary.read-timeout:3s}") Duration readTimeout,
+            @Value("${openlibrary.pool.max-connections:20}") int maxConnections,
+            @Value("${openlibrary.pool.acquire-timeout:500ms}") Duration acquireTimeout) {
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+
+        return builder
+                .rootUri(baseUrl)
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+    @Bean
+    public CircuitBreaker openLibraryCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${openlibrary.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${openlibrary.circuit-breaker.slow-call-duration-threshold:2s}") Duration slowCallDurationThreshold,
+            @Value("${openlibrary.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${openlibrary.circuit-breaker.minimum-number-of-calls:10}") int minimumNumberOfCalls,
+            @Value("${openlibrary.circuit-breaker.wait-duration-in-open-state:30s}") Duration waitDurationInOpenState) {
+
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDurationThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build();
+
+        CircuitBreaker circuitBreaker = CircuitBreaker.of(NAME, config);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            log.warn("Open Library circuit breaker changed state: {} -> {}", transition.getFromState(), transition.getToState());
+            meterRegistry.counter("openlibrary.circuitbreaker.transitions",
+                    "from", transition.getFromState().name(),
+                    "to", transition.getToState().name()).increment();
+        });
+
+        Gauge.builder("openlibrary.circuitbreaker.state", circuitBreaker, cb -> cb.getState().getOrder())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+
+        return circuitBreaker;
+    }
+
+    @Bean
+    public Bulkhead openLibraryBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${openlibrary.bulkhead.max-concurrent-calls:10}") int maxConcurrentCalls,
+            @Value("${openlibrary.bulkhead.max-wait:0ms}") Duration maxWait) {
+
+        Bulkhead bulkhead = Bulkhead.of(NAME, BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build());
+
+        bulkhead.getEventPublisher().onCallRejected(event ->
+                meterRegistry.counter("openlibrary.bulkhead.rejected").increment());
+
+        Gauge.builder("openlibrary.bulkhead.available", bulkhead, b -> b.getMetrics().getAvailableConcurrentCalls())
+                .register(meterRegistry);
+
+        return bulkhead;
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.library.config;
 
 import com.example.library.component.JwtAuthenticationFilter;
+import com.example.library.security.HashingPasswordEncoder;
+import com.example.library.security.LoginRateLimitFilter;
+import com.example.library.security.LoginRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.example.library.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,6 +16,7 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -19,7 +25,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @EnableMethodSecurity
 @Configuration
@@ -29,6 +37,12 @@ public class SecurityConfig {
     private final CustomUserDetailsService customUserDetailsService;
     @Autowired
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final LoginRateLimiter loginRateLimiter;
+    private final ObjectMapper objectMapper;
+
+    // Prometheus scrapes the management port, which is not published outside the deployment
+    @Value("${management.server.port:-1}")
+    private int managementPort;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -37,15 +51,20 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(request -> request.getLocalPort() == managementPort
+                                && "/actuator/prometheus".equals(request.getRequestURI()))
+                        .permitAll()
                         .requestMatchers(
                                 "/auth/**",
                                 "/users/register",
+                                "/actuator/health",
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**",
                                 "/swagger-resources/**",
                                 "/webjars/**",
                                 "/swagger-ui.html")
                         .permitAll()
+                        .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .httpBasic(httpBasic -> httpBasic.disable())
@@ -55,20 +74,38 @@ public class SecurityConfig {
                         .permitAll()
                 ).addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
+        if (loginRateLimiter.enabled()) {
+            http.addFilterBefore(new LoginRateLimitFilter(loginRateLimiter, objectMapper), JwtAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
+    /**
+     * New hashes are written as {@code {bcrypt}...} at {@code bcrypt-strength}; hashes without a prefix (seed data,
+     * the data generator) are read as BCrypt. A hash with another id or a lower cost is replaced on the next
+     * successful login through {@link CustomUserDetailsService#updatePassword}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${app.security.password.hashing-threads:0}") int hashingThreads,
+            @Value("${app.security.password.hashing-queue:32}") int hashingQueue,
+            @Value("${app.security.password.verification-cache-size:10000}") long verificationCacheSize,
+            @Value("${app.security.password.verification-cache-ttl:PT10M}") Duration verificationCacheTtl) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        int threads = hashingThreads < 0 ? 0 : hashingThreads == 0 ? Runtime.getRuntime().availableProcessors() : hashingThreads;
+        return new HashingPasswordEncoder(delegating, threads, hashingQueue, verificationCacheSize, verificationCacheTtl);
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         AuthenticationManagerBuilder authenticationManagerBuilder = http.getSharedObject(AuthenticationManagerBuilder.class);
         authenticationManagerBuilder
                 .userDetailsService(customUserDetailsService)
-                .passwordEncoder(passwordEncoder());
+                .passwordEncoder(passwordEncoder);
 
         return authenticationManagerBuilder.build();
     }
@@ -81,6 +118,7 @@ public class SecurityConfig {
         corsConfig.addAllowedOrigin("http://localhost:8080");
         corsConfig.addAllowedHeader("*");
         corsConfig.addExposedHeader("Authorization");
+        corsConfig.addExposedHeader("X-Total-Count");
         corsConfig.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,31 @@
+package com.example.library.config;
+
+import com.example.library.tracing.FileSpanExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+
+import java.nio.file.Path;
+
+/**
+ * Spans go to the OTLP collector set in {@code management.otlp.tracing.endpoint}, to the file in
+ * {@code app.tracing.file}, or both. Without either they are still created, so trace ids reach the logs.
+ */
+@Configuration
+public class TracingConfig {
+
+    // carries the current span to @Async listeners
+    @Bean
+    public ContextPropagatingTaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.file")
+    public FileSpanExporter fileSpanExporter(@Value("${app.tracing.file}") Path file, ObjectMapper objectMapper) {
+        return new FileSpanExporter(file, objectMapper);
+    }
+}
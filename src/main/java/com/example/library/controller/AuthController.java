@@ -55,6 +55,14 @@ public class AuthController {
                             mediaType = "application/json",
                             schema = @Schema(example = "{\"error\": \"Invalid credentials\"}")
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Too many logins are being verified at once, retry after the Retry-After delay",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"error\": \"Too many login attempts at once, try again shortly\"}")
+                    )
             )
     })
     @PostMapping("/login")
@@ -1,8 +1,10 @@
 package com.example.library.controller;
 
 import com.example.library.exception.NotFoundException;
+import com.example.library.exception.ServiceUnavailableException;
 import com.example.library.model.Book;
 import com.example.library.service.BookService;
+import com.example.library.service.ResourceVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -11,11 +13,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Collections;
 import java.util.List;
@@ -24,7 +30,10 @@ import java.util.List;
 @RequiredArgsConstructor
 @RequestMapping("/books")
 public class BookController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final BookService bookService;
+    private final ResourceVersionService resourceVersionService;
 
     @Operation(summary = "Add a new book using API.", description = "Adds a new book to the system by providing the ISBN. The book will be saved to the database.")
     @ApiResponses(value = {
@@ -51,6 +60,14 @@ public class BookController {
                             mediaType = "application/json",
                             schema = @Schema(example = "{\"error\": \"Book with this ISBN does not exist\"}")
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Open Library is slow or unavailable",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"error\": \"Open Library is currently unavailable. Please try again later.\"}")
+                    )
             )
     })
     @PostMapping("/{isbn}")
@@ -69,6 +86,9 @@ public class BookController {
         } catch (NotFoundException e) {
             return ResponseEntity.status(404).body("{\"error\": \"Book with this ISBN does not exist\"}");
 
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).body("{\"error\": \"" + e.getMessage() + "\"}");
+
         } catch (Exception e) {
             return ResponseEntity.status(500).body("{\"error\": \"An unexpected error occurred: " + e.getMessage() + "\"}");
         }
@@ -134,12 +154,21 @@ public class BookController {
                     responseCode = "204",
                     description = "No books found",
                     content = @Content()
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified since the version in If-None-Match",
+                    content = @Content
             )
     })
     @GetMapping
     @PreAuthorize("hasAnyRole('USER', 'LIBRARIAN', 'ADMIN')")
-    public ResponseEntity<List<Book>> getAllBooks() {
-        List<Book> books = bookService.getAllBooks();
+    public ResponseEntity<List<Book>> getAllBooks(WebRequest request) {
+        List<Book> books = resourceVersionService.readIfModified(request::checkNotModified, bookService::getAllBooks,
+                ResourceVersionService.BOOKS).orElse(null);
+        if (books == null) {
+            return null;
+        }
         if (books.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -180,7 +209,9 @@ public class BookController {
     @Operation(
             summary = "Get books using search criteria.",
             description = "Returns a list of books that match the provided title, author, or ISBN. " +
-                    "You can search using any combination of these criteria. If no books match, a 204 No Content is returned."
+                    "Title and author are matched case-insensitively on any part of the value. " +
+                    "When the free-text parameter 'q' is given, a ranked, prefix and typo tolerant search over title and author is performed instead " +
+                    "and the result is paginated with 'page' and 'size'; the total number of matches is returned in the X-Total-Count header."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -205,8 +236,21 @@ public class BookController {
             @Parameter(description = "Author to search for", example = "F. Scott Fitzgerald")
             @RequestParam(required = false) String author,
             @Parameter(description = "ISBN to search for", example = "9780743273565")
-            @RequestParam(required = false) String isbn
+            @RequestParam(required = false) String isbn,
+            @Parameter(description = "Free-text query over title and author", example = "great gats")
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Page number, used together with 'q'", example = "0")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size, used together with 'q' (max 100)", example = "20")
+            @RequestParam(defaultValue = "20") int size
     ) {
+        if (q != null && !q.isBlank()) {
+            Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+            Page<Book> result = bookService.searchBooks(q, pageable);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(result.getTotalElements()))
+                    .body(result.getContent());
+        }
 
         List<Book> books = bookService.getBooksByParams(title, author, isbn);
         if (books.isEmpty()) {
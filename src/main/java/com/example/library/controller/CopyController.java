@@ -3,6 +3,7 @@ package com.example.library.controller;
 import com.example.library.model.Copy;
 import com.example.library.model.CopyStatus;
 import com.example.library.service.CopyService;
+import com.example.library.service.ResourceVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -15,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,6 +25,7 @@ import java.util.List;
 @RequestMapping(path = "/copies")
 public class CopyController {
     private final CopyService copyService;
+    private final ResourceVersionService resourceVersionService;
 
     @Operation(
             summary = "Get all copies.",
@@ -341,6 +344,11 @@ public class CopyController {
                     description = "No copies found for the book",
                     content = @Content
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified since the version in If-None-Match",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Book not found",
@@ -436,9 +444,17 @@ public class CopyController {
     @PreAuthorize("hasAnyRole('LIBRARIAN', 'ADMIN', 'USER')")
     public ResponseEntity<List<Copy>> getCopiesByBook(
             @Parameter(description = "ID of the book", example = "1")
-            @PathVariable Long bookId
+            @PathVariable Long bookId,
+            WebRequest request
     ) {
-        List<Copy> copies = copyService.getCopiesByBook(bookId);
+        // copies are serialized with their book and library, so those tables version the response too
+        List<Copy> copies = resourceVersionService.readIfModified(request::checkNotModified,
+                () -> copyService.getCopiesByBook(bookId),
+                ResourceVersionService.copiesOfBook(bookId), ResourceVersionService.BOOKS,
+                ResourceVersionService.LIBRARIES).orElse(null);
+        if (copies == null) {
+            return null;
+        }
         if (copies.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
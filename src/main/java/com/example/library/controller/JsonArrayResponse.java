@@ -0,0 +1,54 @@
+package com.example.library.controller;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes elements into a JSON array on the response output buffer as they are produced, instead of
+ * collecting a list first. The first element commits a 200; if none arrives the response is a 204,
+ * like the list endpoints that return {@code ResponseEntity.noContent()}.
+ * <p>
+ * If producing fails after the first element, the 200 is already on the wire. The array is then left
+ * unterminated and the exception propagates, so the container aborts the chunked response and the client
+ * sees an incomplete body, never a valid but shorter list.
+ */
+final class JsonArrayResponse<T> implements Consumer<T> {
+
+    private final ObjectWriter writer;
+    private final HttpServletResponse response;
+    private SequenceWriter sequence;
+
+    JsonArrayResponse(ObjectWriter writer, HttpServletResponse response) {
+        this.writer = writer;
+        this.response = response;
+    }
+
+    @Override
+    public void accept(T element) {
+        try {
+            if (sequence == null) {
+                response.setStatus(HttpStatus.OK.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                sequence = writer.writeValuesAsArray(response.getOutputStream());
+            }
+            sequence.write(element);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void finish() throws IOException {
+        if (sequence == null) {
+            response.setStatus(HttpStatus.NO_CONTENT.value());
+            return;
+        }
+        sequence.close();
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.library.controller;
 
 import com.example.library.dto.LibraryDTO;
+import com.example.library.dto.LibrarySummaryDTO;
 import com.example.library.dto.ReservationDTO;
 import com.example.library.model.Library;
 import com.example.library.model.User;
 import com.example.library.service.LibraryService;
+import com.example.library.service.ResourceVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -15,9 +17,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 
 import java.util.List;
@@ -27,7 +34,10 @@ import java.util.List;
 @RequestMapping("/libraries")
 public class LibraryController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final LibraryService libraryService;
+    private final ResourceVersionService resourceVersionService;
 
     @Operation(
             summary = "Get all libraries.",
@@ -46,12 +56,21 @@ public class LibraryController {
                     responseCode = "204",
                     description = "No libraries found",
                     content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified since the version in If-None-Match",
+                    content = @Content
             )
     })
     @GetMapping
     @PreAuthorize("hasAnyRole('LIBRARIAN', 'ADMIN', 'USER')")
-    public ResponseEntity<List<Library>> getAllLibraries() {
-        List<Library> libraries = libraryService.getAllLibraries();
+    public ResponseEntity<List<Library>> getAllLibraries(WebRequest request) {
+        List<Library> libraries = resourceVersionService.readIfModified(request::checkNotModified,
+                libraryService::getAllLibraries, ResourceVersionService.LIBRARIES).orElse(null);
+        if (libraries == null) {
+            return null;
+        }
         if (libraries.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -227,7 +246,8 @@ public class LibraryController {
 
     @Operation(
             summary = "Get libraries using search criteria.",
-            description = "Returns a list of libraries that match the provided name or address. You can search using any combination of these criteria."
+            description = "Returns a page of libraries that match the provided name or address. You can search using any combination of these criteria. " +
+                    "The result is paginated with 'page' and 'size'; the total number of matches is returned in the X-Total-Count header."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -235,7 +255,7 @@ public class LibraryController {
                     description = "Libraries matching criteria found",
                     content = @Content(
                             mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = Library.class))
+                            array = @ArraySchema(schema = @Schema(implementation = LibrarySummaryDTO.class))
                     )
             ),
             @ApiResponse(
@@ -254,18 +274,25 @@ public class LibraryController {
     })
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('LIBRARIAN', 'ADMIN', 'USER')")
-    public ResponseEntity<List<Library>> searchLibraries(
+    public ResponseEntity<List<LibrarySummaryDTO>> searchLibraries(
             @Parameter(description = "Partial or full name of the library", example = "Central")
             @RequestParam(required = false) String name,
             @Parameter(description = "Partial or full address of the library", example = "Main St")
-            @RequestParam(required = false) String address
+            @RequestParam(required = false) String address,
+            @Parameter(description = "Page number (0-based)", example = "0")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max 100)", example = "20")
+            @RequestParam(defaultValue = "20") int size
     ) {
-        List<Library> libraries = libraryService.searchLibraries(name, address);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), Sort.by("id"));
+        Page<LibrarySummaryDTO> libraries = libraryService.searchLibraries(name, address, pageable);
 
         if (libraries.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
 
-        return ResponseEntity.ok(libraries);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(libraries.getTotalElements()))
+                .body(libraries.getContent());
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.example.library.controller;
 
+import com.example.library.datasource.QueryBudget;
+import com.example.library.dto.LoanCreatedDTO;
 import com.example.library.dto.LoanDTO;
 import com.example.library.model.Loan;
 import com.example.library.service.LoanService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -11,11 +14,14 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -24,10 +30,13 @@ import java.util.List;
 @RequestMapping("loans")
 public class LoanController {
     private final LoanService loanService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Get all loans.",
-            description = "Returns a list of all loans in the system."
+            description = "Returns a list of all loans in the system. The list is streamed to the client page by page as it is read from the database. " +
+                    "If reading fails midway, the response has already started with 200 and ends without closing the JSON array; " +
+                    "clients must treat an incomplete body as a failed request."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -35,7 +44,7 @@ public class LoanController {
                     description = "List of loans returned successfully",
                     content = @Content(
                             mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = Loan.class))
+                            array = @ArraySchema(schema = @Schema(implementation = LoanDTO.class))
                     )
             ),
             @ApiResponse(
@@ -46,12 +55,10 @@ public class LoanController {
     })
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN')")
-    public ResponseEntity<List<LoanDTO>> getAllLoans() {
-        List<LoanDTO> loans = loanService.getAllLoans();
-        if (loans.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.ok(loans);
+    public void getAllLoans(HttpServletResponse response) throws IOException {
+        JsonArrayResponse<LoanDTO> loans = new JsonArrayResponse<>(objectMapper.writerFor(LoanDTO.class), response);
+        loanService.streamAllLoans(loans);
+        loans.finish();
     }
 
 
@@ -85,6 +92,7 @@ public class LoanController {
     @PreAuthorize("hasRole('ADMIN') or " +
             "(hasRole('LIBRARIAN') and @authorizationService.isUserInLibrarianLibrary(#userId)) or " +
             "(hasRole('USER') and @authorizationService.isSelf(#userId))")
+    @QueryBudget(8)
     @GetMapping("user/{userId}")
     public ResponseEntity<List<LoanDTO>> getUserLoans(
             @Parameter(description = "ID of the user whose loans will be fetched", example = "5")
@@ -134,15 +142,16 @@ public class LoanController {
             summary = "Create a loan.",
             description = "Creates a new loan by borrowing a book. The loan is associated with a user and a specific copy of the book. " +
                     "The user provides the book's copy ID and their user ID. If the operation is successful, " +
-                    "the copy will be marked as borrowed, and the loan will be saved in the system."
+                    "the copy will be marked as borrowed, and the loan will be saved in the system. " +
+                    "The confirmation e-mail is sent asynchronously after the loan is committed."
     )
     @ApiResponses(value = {
             @ApiResponse(
-                    responseCode = "200",
-                    description = "Book borrowed successfully",
+                    responseCode = "202",
+                    description = "Loan created, confirmation pending",
                     content = @Content(
-                            mediaType = "text/plain",
-                            schema = @Schema(example = "Book borrowed successfully")
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = LoanCreatedDTO.class, example = "{\"loanId\": 42}")
                     )
             ),
             @ApiResponse(
@@ -165,15 +174,18 @@ public class LoanController {
                     )
             )
     })
+    @QueryBudget(12)
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or " +
             "(hasRole('LIBRARIAN') and @authorizationService.isCopyInLibrarianLibrary(#copyId))")
-    public ResponseEntity<String> createLoan(
+    public ResponseEntity<LoanCreatedDTO> createLoan(
             @Parameter(description = "ID of the user borrowing the book", example = "5") @RequestParam Long userId,
             @Parameter(description = "ID of the book copy being borrowed", example = "12") @RequestParam Long copyId
     ) {
-        loanService.borrowBook(userId, copyId);
-        return ResponseEntity.ok("Book borrowed successfully");
+        Long loanId = loanService.borrowBook(userId, copyId);
+        return ResponseEntity.accepted()
+                .location(URI.create("/loans/" + loanId))
+                .body(new LoanCreatedDTO(loanId));
     }
 
     @Operation(
@@ -259,6 +271,7 @@ public class LoanController {
         return ResponseEntity.ok("Loan extended successfully");
     }
 
+    @QueryBudget(5)
     @GetMapping("/me")
     @PreAuthorize("hasAnyRole('USER')")
     @Operation(
@@ -285,6 +298,7 @@ public class LoanController {
         return ResponseEntity.ok(loans);
     }
 
+    @QueryBudget(5)
     @GetMapping("/me/active")
     @PreAuthorize("hasAnyRole('USER')")
     @Operation(
@@ -343,6 +357,7 @@ public class LoanController {
                     )
             )
     })
+    @QueryBudget(5)
     @GetMapping("/library/{libraryId}")
     @PreAuthorize("hasRole('ADMIN') or (hasRole('LIBRARIAN') and @authorizationService.isLibrarianOfLibrary(#libraryId))")
     public ResponseEntity<List<LoanDTO>> getLoansByLibrary(
@@ -1,5 +1,6 @@
 package com.example.library.controller;
 
+import com.example.library.datasource.QueryBudget;
 import com.example.library.dto.ReservationDTO;
 import com.example.library.model.Reservation;
 import com.example.library.service.ReservationService;
@@ -126,6 +127,7 @@ public class ReservationController {
     @PreAuthorize("hasRole('ADMIN') or " +
             "hasRole('LIBRARIAN') and @authorizationService.isUserInLibrarianLibrary(#userId) or " +
             "hasRole('USER') and @authorizationService.isSelf(#userId) ")
+    @QueryBudget(8)
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<ReservationDTO>> getUserReservations(
             @Parameter(description = "ID of the user whose reservations are to be fetched", example = "12")
@@ -217,6 +219,7 @@ public class ReservationController {
             summary = "Get current user's reservations.",
             description = "Returns a list of reservations for the currently authenticated user."
     )
+    @QueryBudget(5)
     @GetMapping("/me")
     @PreAuthorize("hasAnyRole('USER')")
     public ResponseEntity<List<ReservationDTO>> getMyReservations() {
@@ -228,6 +231,7 @@ public class ReservationController {
             summary = "Get current user's active reservations.",
             description = "Returns a list of active (not cancelled or expired) reservations for the currently authenticated user."
     )
+    @QueryBudget(5)
     @GetMapping("/me/active")
     @PreAuthorize("hasAnyRole('USER')")
     public ResponseEntity<List<ReservationDTO>> getMyActiveReservations() {
@@ -254,6 +258,7 @@ public class ReservationController {
                     content = @Content
             )
     })
+    @QueryBudget(5)
     @GetMapping("/library/{libraryId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN') and @authorizationService.isLibrarianOfLibrary(#libraryId)")
     public ResponseEntity<List<ReservationDTO>> getReservationsByLibrary(
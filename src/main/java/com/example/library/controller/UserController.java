@@ -16,6 +16,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -26,6 +30,8 @@ import java.util.List;
 @RequiredArgsConstructor
 @RequestMapping("/users")
 public class UserController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserService userService;
 
     @Operation(summary = "Get active users.", description = "Returns a list of all aactive users in the system.")
@@ -320,7 +326,8 @@ public class UserController {
 
     @Operation(
             summary = "Get users using search criteria.",
-            description = "Returns a list of users that match the provided name, email, or role. You can search using any combination of these criteria."
+            description = "Returns a page of users that match the provided name, email, or role. You can search using any combination of these criteria. " +
+                    "The result is paginated with 'page' and 'size'; the total number of matches is returned in the X-Total-Count header."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -328,7 +335,7 @@ public class UserController {
                     description = "List of matching users returned successfully",
                     content = @Content(
                             mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = User.class))
+                            array = @ArraySchema(schema = @Schema(implementation = UserInfoDTO.class))
                     )
             ),
             @ApiResponse(
@@ -355,13 +362,22 @@ public class UserController {
             @RequestParam(required = false) String email,
 
             @Parameter(description = "Filter by user role (exact match)", example = "LIBRARIAN")
-            @RequestParam(required = false) UserRole role
+            @RequestParam(required = false) UserRole role,
+
+            @Parameter(description = "Page number (0-based)", example = "0")
+            @RequestParam(defaultValue = "0") int page,
+
+            @Parameter(description = "Page size (max 100)", example = "20")
+            @RequestParam(defaultValue = "20") int size
     ) {
-        List<UserInfoDTO> users = userService.searchUsers(name, email, role);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), Sort.by("id"));
+        Page<UserInfoDTO> users = userService.searchUsers(name, email, role, pageable);
         if (users.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(users);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(users.getTotalElements()))
+                .body(users.getContent());
     }
 
     @Operation(
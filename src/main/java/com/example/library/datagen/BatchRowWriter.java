@@ -0,0 +1,48 @@
+package com.example.library.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Batched {@code INSERT}s with explicit ids, for H2 or for Postgres when {@code COPY} is not
+ * available (add {@code reWriteBatchedInserts=true} to the Postgres URL).
+ */
+final class BatchRowWriter implements RowWriter {
+
+    private final PreparedStatement statement;
+    private final int batchSize;
+    private int pending;
+
+    BatchRowWriter(Connection connection, String table, List<String> columns, int batchSize) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        this.statement = connection.prepareStatement("INSERT INTO " + table + " (" + String.join(", ", columns)
+                + ") OVERRIDING SYSTEM VALUE VALUES (" + placeholders + ")");
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void row(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            statement.setObject(i + 1, values[i]);
+        }
+        statement.addBatch();
+        if (++pending == batchSize) {
+            statement.executeBatch();
+            pending = 0;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.example.library.datagen;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk-loads a synthetic dataset for performance tests on top of whatever the database already
+ * holds. Title popularity and patron activity follow Zipf distributions over a shuffled order, so a
+ * few titles and patrons account for most loans without being the lowest ids. Postgres is loaded
+ * with {@code COPY}, anything else with batched inserts.
+ *
+ * <p>Every generated patron has the password {@value #PASSWORD}.
+ */
+public final class DataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DataGenerator.class);
+
+    public static final String PASSWORD = "user";
+    public static final String EMAIL_DOMAIN = "perf.example.org";
+
+    private static final int LOAN_DAYS = 14;
+    private static final int MAX_EXTRA_COPIES = 19;
+    private static final int LIBRARIAN_EVERY = 1000;
+
+    private static final String[] TITLE_WORDS = {
+            "great", "silent", "hidden", "last", "lost", "broken", "golden", "dark", "winter", "summer",
+            "secret", "burning", "wild", "quiet", "ancient", "crimson", "distant", "endless", "fallen", "frozen"
+    };
+    private static final String[] TITLE_NOUNS = {
+            "river", "garden", "kingdom", "house", "city", "ocean", "forest", "empire", "island", "mountain",
+            "library", "harbor", "tower", "valley", "desert", "station", "bridge", "castle", "storm", "road"
+    };
+    private static final String[] TITLE_ENDINGS = {
+            "chronicles", "legacy", "story", "secrets", "requiem", "promise", "shadows", "journey", "memories", "song",
+            "rising", "diaries", "echoes", "letters", "saga", "tales", "hours", "keeper", "gambit", "prophecy"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Jan", "Maria", "Piotr", "Olivia", "James", "Sofia", "Lucas", "Emma", "Noah",
+            "Zofia", "Adam", "Ewa", "Tomasz", "Clara", "Henry", "Ida", "Oskar", "Nina", "Leo"
+    };
+    private static final String[] LAST_NAMES = {
+            "Kowalski", "Nowak", "Smith", "Brown", "Wisniewski", "Miller", "Lewandowski", "Taylor", "Wojcik", "Clark",
+            "Kaminski", "Walker", "Zielinski", "Young", "Szymanski", "King", "Wright", "Dabrowski", "Scott", "Green"
+    };
+    private static final String[] CITIES = {
+            "Krakow", "Warsaw", "Gdansk", "Poznan", "Wroclaw", "Lodz", "Lublin", "Szczecin", "Katowice", "Torun"
+    };
+
+    private final DatasetSpec spec;
+    private final int batchSize;
+
+    public DataGenerator(DatasetSpec spec, int batchSize) {
+        this.spec = spec;
+        this.batchSize = batchSize;
+    }
+
+    public GeneratedDataset generate(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            return load(connection);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private GeneratedDataset load(Connection connection) throws SQLException {
+        boolean postgres = connection.isWrapperFor(PGConnection.class);
+        Map<String, Long> offsets = new HashMap<>();
+        for (String table : List.of("libraries", "books", "copies", "users", "loans", "reservations")) {
+            offsets.put(table, maxId(connection, table));
+        }
+
+        int[] bookByRank = permutation(spec.books(), random(1));
+        int[] userByRank = permutation(spec.users(), random(2));
+        ZipfDistribution popularity = new ZipfDistribution(spec.books(), spec.bookSkew());
+        ZipfDistribution activity = new ZipfDistribution(spec.users(), spec.patronSkew());
+
+        // copies of the title at popularity rank r are the contiguous range firstCopy[r] until firstCopy[r + 1]
+        int[] firstCopy = new int[spec.books() + 1];
+        for (int rank = 0; rank < spec.books(); rank++) {
+            firstCopy[rank + 1] = firstCopy[rank] + 1 + (int) (MAX_EXTRA_COPIES / Math.sqrt(rank + 1));
+        }
+        Catalog catalog = new Catalog(popularity, activity, userByRank, firstCopy);
+
+        // a dry run of the loan and reservation history decides which copies end up borrowed or reserved
+        BitSet borrowed = new BitSet(firstCopy[spec.books()]);
+        BitSet reserved = new BitSet(firstCopy[spec.books()]);
+        generateLoans(catalog, borrowed, (user, copy, start, end, returned) -> {
+        });
+        generateReservations(catalog, borrowed, reserved, (user, copy, created, expires, status) -> {
+        });
+
+        long libraryOffset = offsets.get("libraries");
+        long bookOffset = offsets.get("books");
+        long copyOffset = offsets.get("copies");
+        long userOffset = offsets.get("users");
+        long loanOffset = offsets.get("loans");
+        long reservationOffset = offsets.get("reservations");
+
+        loadTable(connection, postgres, "libraries", List.of("id", "name", "address", "status"), rows -> {
+            SplittableRandom random = random(3);
+            for (int i = 1; i <= spec.libraries(); i++) {
+                long id = libraryOffset + i;
+                rows.row(id, "Perf Library " + id,
+                        LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " St " + (1 + random.nextInt(200)) + ", "
+                                + CITIES[random.nextInt(CITIES.length)],
+                        "ACTIVE");
+            }
+            return spec.libraries();
+        });
+
+        loadTable(connection, postgres, "books", List.of("id", "title", "author", "isbn"), rows -> {
+            SplittableRandom random = random(4);
+            for (int i = 1; i <= spec.books(); i++) {
+                long id = bookOffset + i;
+                String title = capitalize(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]) + " "
+                        + capitalize(TITLE_NOUNS[random.nextInt(TITLE_NOUNS.length)]) + " "
+                        + capitalize(TITLE_ENDINGS[random.nextInt(TITLE_ENDINGS.length)]);
+                String author = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                rows.row(id, title, author, String.format("979%010d", id));
+            }
+            return spec.books();
+        });
+
+        if (postgres) {
+            // the per-row ETag trigger from V13 would add a version row for every generated book
+            execute(connection, "ALTER TABLE copies DISABLE TRIGGER USER");
+        }
+        loadTable(connection, postgres, "copies", List.of("id", "book_id", "library_id", "status"), rows -> {
+            SplittableRandom random = random(5);
+            for (int rank = 0; rank < spec.books(); rank++) {
+                long bookId = bookOffset + 1 + bookByRank[rank];
+                for (int copy = firstCopy[rank]; copy < firstCopy[rank + 1]; copy++) {
+                    String status = borrowed.get(copy) ? "BORROWED" : reserved.get(copy) ? "RESERVED" : "AVAILABLE";
+                    rows.row(copyOffset + 1 + copy, bookId, libraryOffset + 1 + random.nextInt(spec.libraries()), status);
+                }
+            }
+            return firstCopy[spec.books()];
+        });
+        if (postgres) {
+            execute(connection, "ALTER TABLE copies ENABLE TRIGGER USER");
+            connection.commit();
+        }
+
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        loadTable(connection, postgres, "users",
+                List.of("id", "password", "email", "name", "surname", "role", "library_id", "active"), rows -> {
+                    SplittableRandom random = random(6);
+                    for (int i = 1; i <= spec.users(); i++) {
+                        long id = userOffset + i;
+                        boolean librarian = isLibrarian(i - 1);
+                        rows.row(id, passwordHash, email(id),
+                                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                                librarian ? "LIBRARIAN" : "USER",
+                                librarian ? libraryOffset + 1 + random.nextInt(spec.libraries()) : null,
+                                true);
+                    }
+                    return spec.users();
+                });
+
+        loadTable(connection, postgres, "loans",
+                List.of("id", "user_id", "copy_id", "start_date", "end_date", "return_date"), rows -> {
+                    long[] id = {loanOffset};
+                    generateLoans(catalog, new BitSet(), (user, copy, start, end, returned) ->
+                            rows.row(++id[0], userOffset + 1 + user, copyOffset + 1 + copy, start, end, returned));
+                    return spec.loans();
+                });
+
+        loadTable(connection, postgres, "reservations",
+                List.of("id", "user_id", "copy_id", "created_at", "expiration_date", "status"), rows -> {
+                    long[] id = {reservationOffset};
+                    generateReservations(catalog, borrowed, new BitSet(), (user, copy, created, expires, status) ->
+                            rows.row(++id[0], userOffset + 1 + user, copyOffset + 1 + copy, created, expires, status));
+                    return spec.reservations();
+                });
+
+        if (postgres) {
+            execute(connection, "ANALYZE libraries, books, copies, users, loans, reservations");
+            connection.commit();
+        }
+        return new GeneratedDataset(userOffset, userByRank);
+    }
+
+    private void generateLoans(Catalog catalog, BitSet borrowed, LoanSink sink) throws SQLException {
+        SplittableRandom random = random(7);
+        for (int i = 0; i < spec.loans(); i++) {
+            int user = catalog.patron(random);
+            int copy = catalog.copy(random);
+            int age = random.nextInt(spec.historyDays());
+            LocalDate start = spec.today().minusDays(age);
+            LocalDate end = start.plusDays(random.nextInt(10) == 0 ? 2 * LOAN_DAYS : LOAN_DAYS);
+            LocalDate returned;
+            // loans from the last month are often still out, some of them overdue; a copy is out at most once
+            if (age < 2 * LOAN_DAYS && random.nextInt(10) < 7 && !borrowed.get(copy)) {
+                borrowed.set(copy);
+                returned = null;
+            } else {
+                LocalDate returnDate = start.plusDays(1 + random.nextInt(LOAN_DAYS + 7));
+                returned = returnDate.isAfter(spec.today()) ? spec.today() : returnDate;
+            }
+            sink.loan(user, copy, start, end, returned);
+        }
+    }
+
+    private void generateReservations(Catalog catalog, BitSet borrowed, BitSet reserved, ReservationSink sink)
+            throws SQLException {
+        SplittableRandom random = random(8);
+        for (int i = 0; i < spec.reservations(); i++) {
+            int user = catalog.patron(random);
+            int copy = catalog.copy(random);
+            int age = random.nextInt(spec.historyDays());
+            LocalDate created = spec.today().minusDays(age);
+            String status;
+            if (age < 3 && !borrowed.get(copy) && !reserved.get(copy)) {
+                reserved.set(copy);
+                status = "WAITING";
+            } else {
+                int outcome = random.nextInt(10);
+                status = outcome < 6 ? "REALIZED" : outcome < 9 ? "EXPIRED" : "CANCELLED";
+            }
+            sink.reservation(user, copy, created, created.plusDays(2), status);
+        }
+    }
+
+    private void loadTable(Connection connection, boolean postgres, String table, List<String> columns, TableLoader loader)
+            throws SQLException {
+        long started = System.nanoTime();
+        int rows;
+        try (RowWriter writer = postgres
+                ? new CopyRowWriter(connection, table, columns)
+                : new BatchRowWriter(connection, table, columns, batchSize)) {
+            rows = loader.load(writer);
+        }
+        execute(connection, "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId(connection, table) + 1));
+        connection.commit();
+        log.info("Generated {} rows in {} in {} ms", rows, table, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private SplittableRandom random(int stream) {
+        // one stream per table, so resizing one table does not reshuffle the others
+        return new SplittableRandom(spec.seed() * 31 + stream);
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static int[] permutation(int size, SplittableRandom random) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static boolean isLibrarian(int user) {
+        return (user + 1) % LIBRARIAN_EVERY == 0;
+    }
+
+    static String email(long userId) {
+        return "patron" + userId + "@" + EMAIL_DOMAIN;
+    }
+
+    /**
+     * {@code ./gradlew generateData --args="--url=jdbc:postgresql://localhost:5432/library_db --user=postgres
+     * --password=postgres --scale=1 --accounts-file=src/gatling/resources/accounts.csv"}
+     */
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String url = options.get("url");
+        if (url == null) {
+            throw new IllegalArgumentException("--url is required");
+        }
+
+        DatasetSpec spec = DatasetSpec.ofScale(Double.parseDouble(options.getOrDefault("scale", "1")))
+                .withSeed(Long.parseLong(options.getOrDefault("seed", "42")));
+        DataGenerator generator = new DataGenerator(spec, Integer.parseInt(options.getOrDefault("batch-size", "1000")));
+
+        GeneratedDataset dataset;
+        try (Connection connection = DriverManager.getConnection(url, options.get("user"), options.get("password"))) {
+            dataset = generator.generate(connection);
+        }
+
+        String accountsFile = options.get("accounts-file");
+        if (accountsFile != null) {
+            int accounts = Integer.parseInt(options.getOrDefault("accounts", "10000"));
+            dataset.writeAccounts(Path.of(accountsFile), accounts);
+            log.info("Wrote up to {} of the most active patrons and all librarians to {}", accounts, accountsFile);
+        }
+    }
+
+    /**
+     * @param userByRank generated user offsets ordered from the most to the least active patron
+     */
+    public record GeneratedDataset(long userIdOffset, int[] userByRank) {
+
+        public String patronEmail(int activityRank) {
+            return email(userIdOffset + 1 + userByRank[activityRank]);
+        }
+
+        /**
+         * A Gatling feeder of {@code email,password,role}: up to {@code patrons} patrons, most active first,
+         * followed by every generated librarian.
+         */
+        public void writeAccounts(Path file, int patrons) {
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                try (Writer writer = Files.newBufferedWriter(file)) {
+                    writer.write("email,password,role\n");
+                    int written = 0;
+                    for (int rank = 0; rank < userByRank.length && written < patrons; rank++) {
+                        if (!isLibrarian(userByRank[rank])) {
+                            writer.write(patronEmail(rank) + "," + PASSWORD + ",USER\n");
+                            written++;
+                        }
+                    }
+                    for (int user = 0; user < userByRank.length; user++) {
+                        if (isLibrarian(user)) {
+                            writer.write(email(userIdOffset + 1 + user) + "," + PASSWORD + ",LIBRARIAN\n");
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private record Catalog(ZipfDistribution popularity, ZipfDistribution activity, int[] userByRank, int[] firstCopy) {
+
+        int patron(SplittableRandom random) {
+            return userByRank[activity.sample(random)];
+        }
+
+        int copy(SplittableRandom random) {
+            int rank = popularity.sample(random);
+            return firstCopy[rank] + random.nextInt(firstCopy[rank + 1] - firstCopy[rank]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TableLoader {
+        int load(RowWriter rows) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface LoanSink {
+        void loan(int user, int copy, LocalDate start, LocalDate end, LocalDate returned) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ReservationSink {
+        void reservation(int user, int copy, LocalDate created, LocalDate expires, String status) throws SQLException;
+    }
+}
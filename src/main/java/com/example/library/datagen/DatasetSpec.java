@@ -0,0 +1,37 @@
+package com.example.library.datagen;
+
+import java.time.LocalDate;
+
+/**
+ * Size and shape of a generated dataset. The same spec and seed always produce the same rows.
+ *
+ * @param bookSkew   Zipf exponent of title popularity; around 1 means the top 1% of titles take
+ *                   a large share of all loans and reservations
+ * @param patronSkew Zipf exponent of patron activity; most patrons borrow rarely, a few very often
+ * @param today      the date loan history ends on, so the data does not depend on when it is generated
+ */
+public record DatasetSpec(
+        long seed,
+        int libraries,
+        int books,
+        int users,
+        int loans,
+        int reservations,
+        double bookSkew,
+        double patronSkew,
+        int historyDays,
+        LocalDate today) {
+
+    public static DatasetSpec ofScale(double scale) {
+        return new DatasetSpec(42, atLeastOne(200 * scale), atLeastOne(1_000_000 * scale), atLeastOne(500_000 * scale),
+                atLeastOne(5_000_000 * scale), atLeastOne(500_000 * scale), 1.07, 1.2, 730, LocalDate.of(2025, 6, 1));
+    }
+
+    public DatasetSpec withSeed(long seed) {
+        return new DatasetSpec(seed, libraries, books, users, loans, reservations, bookSkew, patronSkew, historyDays, today);
+    }
+
+    private static int atLeastOne(double value) {
+        return (int) Math.max(1, Math.round(value));
+    }
+}
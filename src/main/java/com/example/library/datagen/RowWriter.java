@@ -0,0 +1,15 @@
+package com.example.library.datagen;
+
+import java.sql.SQLException;
+
+/**
+ * Appends rows to one table. Values are {@code null}, numbers, strings or {@code LocalDate}s, in
+ * the column order the writer was opened with.
+ */
+interface RowWriter extends AutoCloseable {
+
+    void row(Object... values) throws SQLException;
+
+    @Override
+    void close() throws SQLException;
+}
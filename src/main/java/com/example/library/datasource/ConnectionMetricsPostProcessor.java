@@ -0,0 +1,36 @@
+package com.example.library.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every Hikari pool bean in an {@link InstrumentedDataSource}. Runs first, while the bean is
+ * still a bare {@link HikariDataSource} and not yet wrapped by the statement proxies.
+ */
+@Component
+public class ConnectionMetricsPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ConnectionMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            String pool = dataSource.getPoolName() != null ? dataSource.getPoolName() : beanName;
+            return new InstrumentedDataSource(dataSource, meterRegistry, pool);
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.library.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long callers wait for a pooled connection ({@code db.connection.acquire}) and how long
+ * they keep it before closing ({@code db.connection.hold}), tagged with the pool and the controller
+ * endpoint that was being served, e.g. {@code GET /loans/user/{userId}}.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    static final String ACQUIRE_TIMER = "db.connection.acquire";
+    static final String HOLD_TIMER = "db.connection.hold";
+    static final String BACKGROUND = "background";
+    static final String UNMAPPED = "unmapped";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String pool;
+
+    public InstrumentedDataSource(DataSource target, ObjectProvider<MeterRegistry> meterRegistry, String pool) {
+        super(target);
+        this.meterRegistry = meterRegistry;
+        this.pool = pool;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        return instrument(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        return instrument(connection, start);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection instrument(Connection connection, long start) {
+        long acquired = System.nanoTime();
+        String endpoint = currentEndpoint();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return connection;
+        }
+        timer(registry, ACQUIRE_TIMER, endpoint).record(acquired - start, TimeUnit.NANOSECONDS);
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new InvocationHandler() {
+                    private boolean closed;
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("close") && !closed) {
+                            closed = true;
+                            timer(registry, HOLD_TIMER, endpoint).record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+
+    private Timer timer(MeterRegistry registry, String name, String endpoint) {
+        return Timer.builder(name)
+                .tag("pool", pool)
+                .tag("endpoint", endpoint)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return BACKGROUND;
+        }
+        return endpoint(servletAttributes.getRequest());
+    }
+
+    static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? request.getMethod() + " " + pattern : UNMAPPED;
+    }
+}
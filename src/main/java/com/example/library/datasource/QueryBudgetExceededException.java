@@ -0,0 +1,8 @@
+package com.example.library.datasource;
+
+public class QueryBudgetExceededException extends IllegalStateException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.library.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link QueryScope} for every request, including the security filters, and reports it
+ * against the handler's {@link QueryBudget} once the response is complete.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final ObjectProvider<QueryInspector> queryInspector;
+
+    public QueryBudgetFilter(ObjectProvider<QueryInspector> queryInspector) {
+        this.queryInspector = queryInspector;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryInspector inspector = queryInspector.getIfAvailable();
+        if (inspector == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        QueryScope scope = QueryScope.open(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+        inspector.report(scope, InstrumentedDataSource.endpoint(request), budget(request));
+    }
+
+    private static int budget(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.library.datasource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Puts a statement proxy in front of the application's {@code dataSource} bean, which is the routing
+ * proxy when read replicas are on, so statements on every pool reach the {@link QueryInspector}.
+ */
+@Component
+public class QueryInspectionPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<QueryInspector> queryInspector;
+
+    public QueryInspectionPostProcessor(ObjectProvider<QueryInspector> queryInspector) {
+        this.queryInspector = queryInspector;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(new InspectingListener())
+                    .build();
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private class InspectingListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            QueryInspector inspector = queryInspector.getIfAvailable();
+            if (inspector == null || queryInfoList.isEmpty()) {
+                return;
+            }
+            // a batch is one round trip, so it counts once under the shape of its first statement
+            inspector.afterQuery(queryInfoList.get(0).getQuery(), execInfo.getElapsedTime());
+        }
+    }
+}
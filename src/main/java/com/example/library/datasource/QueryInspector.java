@@ -0,0 +1,109 @@
+package com.example.library.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Looks at every executed statement: logs the slow ones and counts them against the current
+ * {@link QueryScope}. When a scope ends, {@link #report} publishes its statement count, warns about
+ * statement shapes repeated often enough to be an N+1, and checks the declared {@link QueryBudget}.
+ * Logged SQL never contains bind values or literals.
+ */
+@Component
+public class QueryInspector {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryInspector.class);
+
+    static final String STATEMENTS = "db.statements";
+    static final String SLOW = "db.statements.slow";
+    static final String REPEATED = "db.statements.repeated";
+    static final String BUDGET_EXCEEDED = "db.statements.budget.exceeded";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long slowThresholdMillis;
+    private final int repeatThreshold;
+    private final boolean enforceBudgets;
+
+    public QueryInspector(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.jdbc.inspection.slow-threshold:PT0.2S}") Duration slowThreshold,
+            @Value("${app.jdbc.inspection.repeat-threshold:10}") int repeatThreshold,
+            @Value("${app.jdbc.inspection.enforce-budgets:false}") boolean enforceBudgets) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdMillis = slowThreshold.toMillis();
+        this.repeatThreshold = repeatThreshold;
+        this.enforceBudgets = enforceBudgets;
+    }
+
+    void afterQuery(String sql, long elapsedMillis) {
+        String shape = shape(sql);
+        QueryScope scope = QueryScope.current();
+        if (scope != null) {
+            scope.record(shape);
+        }
+        if (elapsedMillis >= slowThresholdMillis) {
+            String unit = scope != null ? scope.name() : InstrumentedDataSource.BACKGROUND;
+            log.warn("Slow statement ({} ms) in {}: {}", elapsedMillis, unit, shape);
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                Counter.builder(SLOW).tag("unit", InstrumentedDataSource.currentEndpoint()).register(registry).increment();
+            }
+        }
+    }
+
+    /**
+     * @param unit   bounded name for metrics, e.g. {@code GET /loans/{loanId}} or {@code LoanService.checkLoans}
+     * @param budget maximum number of statements, or a negative value when none is declared
+     * @throws QueryBudgetExceededException if the budget is exceeded and {@code app.jdbc.inspection.enforce-budgets} is on
+     */
+    public void report(QueryScope scope, String unit, int budget) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            DistributionSummary.builder(STATEMENTS).tag("unit", unit).register(registry).record(scope.statements());
+        }
+
+        Map<String, Integer> repeated = scope.repeatedShapes(repeatThreshold);
+        repeated.forEach((shape, count) ->
+                log.warn("Possible N+1 in {}: {} executions of {}", scope.name(), count, shape));
+        if (registry != null && !repeated.isEmpty()) {
+            Counter.builder(REPEATED).tag("unit", unit).register(registry).increment();
+        }
+
+        if (budget >= 0 && scope.statements() > budget) {
+            String message = scope.name() + " executed " + scope.statements() + " statements, budget is " + budget;
+            if (registry != null) {
+                Counter.builder(BUDGET_EXCEEDED).tag("unit", unit).register(registry).increment();
+            }
+            if (enforceBudgets) {
+                throw new QueryBudgetExceededException(message + "; repeated: " + scope.repeatedShapes(2));
+            }
+            log.warn(message);
+        }
+    }
+
+    /**
+     * The statement with literals replaced by {@code ?}, whitespace collapsed and IN lists folded,
+     * so the same query with different values or list lengths has one shape.
+     */
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
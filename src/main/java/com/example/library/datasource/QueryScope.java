@@ -0,0 +1,80 @@
+package com.example.library.datasource;
+
+import io.micrometer.context.ContextRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Statements executed by one unit of work, an HTTP request or a scheduled job run. The scope is bound to
+ * the opening thread and travels to executor threads with the rest of the propagated context, so work
+ * handed to an executor is counted against the request that started it.
+ */
+public final class QueryScope implements AutoCloseable {
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(
+                "library.query-scope", CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    private final String name;
+    private final QueryScope previous;
+    private final AtomicInteger statements = new AtomicInteger();
+    private final Map<String, AtomicInteger> shapes = new ConcurrentHashMap<>();
+
+    private QueryScope(String name, QueryScope previous) {
+        this.name = name;
+        this.previous = previous;
+    }
+
+    public static QueryScope open(String name) {
+        QueryScope scope = new QueryScope(name, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static QueryScope current() {
+        return CURRENT.get();
+    }
+
+    void record(String shape) {
+        statements.incrementAndGet();
+        shapes.computeIfAbsent(shape, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int statements() {
+        return statements.get();
+    }
+
+    /**
+     * Statement shapes executed at least {@code threshold} times, with their counts.
+     */
+    public Map<String, Integer> repeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.forEach((shape, count) -> {
+            if (count.get() >= threshold) {
+                repeated.put(shape, count.get());
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.library.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers who committed a write recently, so their reads stay on the primary until the
+ * replicas had time to catch up.
+ */
+public class ReadYourWritesTracker {
+
+    private final Map<String, Long> lastWriteByPrincipal = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final long windowMillis;
+
+    public ReadYourWritesTracker(Clock clock, Duration window) {
+        this.clock = clock;
+        this.windowMillis = window.toMillis();
+    }
+
+    public void recordWrite(String principal) {
+        lastWriteByPrincipal.put(principal, clock.millis());
+    }
+
+    public boolean wroteRecently(String principal) {
+        Long lastWrite = lastWriteByPrincipal.get(principal);
+        return lastWrite != null && clock.millis() - lastWrite < windowMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.read-your-writes-window:PT2S}")
+    public void evictExpired() {
+        long now = clock.millis();
+        lastWriteByPrincipal.values().removeIf(lastWrite -> now - lastWrite >= windowMillis);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.library.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives every run of a scheduled job in the service layer its own {@link QueryScope}, named after the
+ * job method, e.g. {@code LoanService.checkLoans}.
+ */
+@Aspect
+@Component
+public class ScheduledJobQueryScope {
+
+    private final QueryInspector queryInspector;
+
+    public ScheduledJobQueryScope(QueryInspector queryInspector) {
+        this.queryInspector = queryInspector;
+    }
+
+    @Around("@annotation(org.springframework.scheduling.annotation.Scheduled) && within(com.example.library.service..*)")
+    public Object inspect(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String job = signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+
+        QueryScope scope = QueryScope.open(job);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            scope.close();
+        }
+        QueryBudget budget = signature.getMethod().getAnnotation(QueryBudget.class);
+        queryInspector.report(scope, job, budget != null ? budget.value() : -1);
+        return result;
+    }
+}
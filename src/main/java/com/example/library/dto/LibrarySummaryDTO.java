@@ -0,0 +1,6 @@
+package com.example.library.dto;
+
+import com.example.library.model.LibraryStatus;
+
+public record LibrarySummaryDTO(Long id, String name, String address, LibraryStatus status) {
+}
@@ -0,0 +1,4 @@
+package com.example.library.dto;
+
+public record LoanCreatedDTO(Long loanId) {
+}
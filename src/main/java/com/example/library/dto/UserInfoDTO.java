@@ -1,4 +1,10 @@
 package com.example.library.dto;
 
+import com.example.library.model.UserRole;
+
 public record UserInfoDTO(Long id, String email, String name, String surname, String role, Long libraryId) {
-}
\ No newline at end of file
+
+    public UserInfoDTO(Long id, String email, String name, String surname, UserRole role, Long libraryId) {
+        this(id, email, name, surname, role.name(), libraryId);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.library.event;
+
+import com.example.library.model.Loan;
+
+public record LoanCreatedEvent(Loan loan) {
+}
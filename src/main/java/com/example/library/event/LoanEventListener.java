@@ -0,0 +1,32 @@
+package com.example.library.event;
+
+import com.example.library.service.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Side effects of a checkout. They run only after the loan is committed and off the request thread,
+ * so a slow SMTP server no longer shows up in the latency of {@code POST /loans}.
+ */
+@Component
+public class LoanEventListener {
+
+    private final NotificationService notificationService;
+    private final Counter loansCreated;
+
+    public LoanEventListener(NotificationService notificationService, MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.loansCreated = meterRegistry.counter("library.loans.created");
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onLoanCreated(LoanCreatedEvent event) {
+        loansCreated.increment();
+        notificationService.sendLoanSuccess(event.loan().getUser().getEmail(), event.loan());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.library.exception;
+
+import java.util.Map;
+
+/**
+ * Expected outcome of a request (missing entity, rule violation) rather than a bug. It records no stack
+ * trace and no suppressed exceptions, so it costs about as much as any other allocation. It is immutable,
+ * so one with a fixed message can be thrown from a constant, and its JSON error body is built only once.
+ */
+public abstract class BusinessException extends RuntimeException {
+
+    private final Map<String, String> body;
+
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+        this.body = Map.of("error", message);
+    }
+
+    public Map<String, String> body() {
+        return body;
+    }
+}
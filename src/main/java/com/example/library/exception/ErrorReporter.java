@@ -0,0 +1,132 @@
+package com.example.library.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Logs and counts failures by key, e.g. {@code mail.overdue} or {@code http.not_found}. Every report
+ * increments {@code library.errors{key, exception}}; at most {@code app.errors.max-logs-per-window} lines per
+ * key are logged in each window and the rest are summed into the {@code suppressed} field of the next line.
+ * Errors carry a stack trace on the first line of a window and on every {@code stack-trace-sample-rate}-th
+ * report, otherwise only the exception message. Expected business outcomes ({@link #expected}) are only
+ * counted, and one in {@code expected-log-sample-rate} is logged at DEBUG.
+ */
+@Component
+public class ErrorReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorReporter.class);
+    static final String ERRORS = "library.errors";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Clock clock;
+    private final int maxLogsPerWindow;
+    private final long windowMillis;
+    private final int stackTraceSampleRate;
+    private final int expectedLogSampleRate;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ErrorReporter(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            Clock clock,
+            @Value("${app.errors.max-logs-per-window:10}") int maxLogsPerWindow,
+            @Value("${app.errors.window:PT1M}") Duration window,
+            @Value("${app.errors.stack-trace-sample-rate:100}") int stackTraceSampleRate,
+            @Value("${app.errors.expected-log-sample-rate:100}") int expectedLogSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.maxLogsPerWindow = maxLogsPerWindow;
+        this.windowMillis = window.toMillis();
+        this.stackTraceSampleRate = Math.max(1, stackTraceSampleRate);
+        this.expectedLogSampleRate = Math.max(1, expectedLogSampleRate);
+    }
+
+    public void error(String key, String message, Throwable error) {
+        count(key, error.getClass().getSimpleName());
+        Admission admission = admit(key);
+        if (admission == null) {
+            return;
+        }
+        if (admission.stackTrace()) {
+            log.error("{} {} {}", message, kv("error_key", key), kv("suppressed", admission.suppressed()), error);
+        } else {
+            log.error("{} {} {} {}", message, kv("error_key", key), kv("suppressed", admission.suppressed()),
+                    kv("exception", error.toString()));
+        }
+    }
+
+    public void warn(String key, String message) {
+        count(key, "none");
+        Admission admission = admit(key);
+        if (admission != null) {
+            log.warn("{} {} {}", message, kv("error_key", key), kv("suppressed", admission.suppressed()));
+        }
+    }
+
+    public void expected(String key, BusinessException exception) {
+        count(key, exception.getClass().getSimpleName());
+        if (!log.isDebugEnabled() || ThreadLocalRandom.current().nextInt(expectedLogSampleRate) != 0) {
+            return;
+        }
+        Admission admission = admit(key);
+        if (admission != null) {
+            log.debug("{} {} {}", exception.getMessage(), kv("error_key", key), kv("suppressed", admission.suppressed()));
+        }
+    }
+
+    private void count(String key, String exception) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        counters.computeIfAbsent(key + '|' + exception, k -> Counter.builder(ERRORS)
+                        .tag("key", key)
+                        .tag("exception", exception)
+                        .register(registry))
+                .increment();
+    }
+
+    private Admission admit(String key) {
+        return windows.computeIfAbsent(key, k -> new Window())
+                .admit(clock.millis(), windowMillis, maxLogsPerWindow, stackTraceSampleRate);
+    }
+
+    private record Admission(long suppressed, boolean stackTrace) {
+    }
+
+    private static final class Window {
+        private long start = Long.MIN_VALUE;
+        private int logged;
+        private long suppressed;
+        private long reports;
+
+        synchronized Admission admit(long now, long windowMillis, int maxLogs, int sampleRate) {
+            reports++;
+            if (start == Long.MIN_VALUE || now - start >= windowMillis) {
+                start = now;
+                logged = 0;
+            }
+            if (logged >= maxLogs) {
+                suppressed++;
+                return null;
+            }
+            Admission admission = new Admission(suppressed, logged == 0 || reports % sampleRate == 0);
+            logged++;
+            suppressed = 0;
+            return admission;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.library.exception;
 
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import lombok.RequiredArgsConstructor;
 import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,10 +21,14 @@ import java.util.HashMap;
 import java.util.Map;
 
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // not part of @WebMvcTest slices, hence the provider
+    private final ObjectProvider<ErrorReporter> errorReporter;
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<Map<String, String>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
         String name = ex.getName();
@@ -37,7 +44,7 @@ public class GlobalExceptionHandler {
             message += ". Allowed values: " + String.join(", ", enumValues);
         }
 
-        logger.error(message);
+        report("http.type_mismatch", message);
         return ResponseEntity
                 .badRequest()
                 .contentType(MediaType.APPLICATION_JSON)
@@ -59,7 +66,7 @@ public class GlobalExceptionHandler {
                 String message = "Invalid value '" + invalidValue + "' for parameter. Expected type: "
                         + targetType.getSimpleName() + ". Allowed values: " + String.join(", ", enumValues);
 
-                logger.error(message);
+                report("http.unreadable_body", message);
                 return ResponseEntity
                         .badRequest()
                         .contentType(MediaType.APPLICATION_JSON)
@@ -68,7 +75,7 @@ public class GlobalExceptionHandler {
         }
 
         String message = "Malformed JSON or invalid enum value. Please check the request body format.";
-        logger.error(message);
+        report("http.unreadable_body", message);
         return ResponseEntity
                 .badRequest()
                 .contentType(MediaType.APPLICATION_JSON)
@@ -77,19 +84,39 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<Map<String, String>> handleNotFound(NotFoundException ex) {
-        logger.error("Not Found: {}", ex.getMessage());
+        reportExpected("http.not_found", ex);
         return ResponseEntity
                 .status(404)
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(Map.of("error", ex.getMessage()));
+                .body(ex.body());
     }
 
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<Map<String, String>> handleBadRequest(BadRequestException ex) {
-        logger.error("Bad Request: {}", ex.getMessage());
+        reportExpected("http.bad_request", ex);
         return ResponseEntity
                 .status(400)
                 .contentType(MediaType.APPLICATION_JSON)
+                .body(ex.body());
+    }
+
+    // BCrypt pool and queue are full: the client should back off instead of waiting in line
+    @ExceptionHandler(LoginCapacityExceededException.class)
+    public ResponseEntity<Map<String, String>> handleLoginCapacityExceeded(LoginCapacityExceededException ex) {
+        reportExpected("http.too_many_logins", ex);
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ex.body());
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        reportError("http.service_unavailable", "Service Unavailable", ex);
+        return ResponseEntity
+                .status(503)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(Map.of("error", ex.getMessage()));
     }
 
@@ -99,14 +126,43 @@ public class GlobalExceptionHandler {
         ex.getBindingResult().getFieldErrors().forEach(error ->
                 errors.put(error.getField(), error.getDefaultMessage())
         );
-        logger.error("Validation errors: {}", errors);
+        report("http.validation", "Validation errors: " + errors);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<String> handleConstraintViolationException(ConstraintViolationException ex) {
         String message = "Validation error: " + ex.getMessage();
-        logger.error(message);
+        report("http.constraint_violation", message);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
     }
-}
\ No newline at end of file
+
+    // client errors are the caller's problem: a warning without stack trace, limited per key
+    private void report(String key, String message) {
+        ErrorReporter reporter = errorReporter.getIfAvailable();
+        if (reporter != null) {
+            reporter.warn(key, message);
+        } else {
+            logger.warn(message);
+        }
+    }
+
+    // a missing book or a taken copy is normal traffic; it is counted, and only sampled into the DEBUG log
+    private void reportExpected(String key, BusinessException ex) {
+        ErrorReporter reporter = errorReporter.getIfAvailable();
+        if (reporter != null) {
+            reporter.expected(key, ex);
+        } else {
+            logger.debug("{}", ex.getMessage());
+        }
+    }
+
+    private void reportError(String key, String message, Exception ex) {
+        ErrorReporter reporter = errorReporter.getIfAvailable();
+        if (reporter != null) {
+            reporter.error(key, message, ex);
+        } else {
+            logger.error(message, ex);
+        }
+    }
+}
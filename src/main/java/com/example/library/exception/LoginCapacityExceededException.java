@@ -0,0 +1,7 @@
+package com.example.library.exception;
+
+public class LoginCapacityExceededException extends BusinessException {
+    public LoginCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.library.exception;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends BusinessException {
     public NotFoundException(String message) {
         super(message);
     }
@@ -0,0 +1,55 @@
+package com.example.library.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through one in {@code rate} events of the loggers under {@code loggerPrefix} at or below
+ * {@code maxLevel}, e.g. every 10th statement of {@code org.hibernate.SQL}. Events above {@code maxLevel} always pass.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong events = new AtomicLong();
+
+    private String loggerPrefix;
+    private int rate = 10;
+    private Level maxLevel = Level.DEBUG;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || level.toInt() > maxLevel.toInt() || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        // isDebugEnabled() checks arrive without a message and must not use up a sample
+        if (format == null) {
+            return FilterReply.NEUTRAL;
+        }
+        return events.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    @Override
+    public void start() {
+        if (loggerPrefix == null || rate < 1) {
+            addError("loggerPrefix and a rate of at least 1 are required");
+            return;
+        }
+        super.start();
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.DEBUG);
+    }
+}
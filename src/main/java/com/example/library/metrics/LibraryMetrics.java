@@ -0,0 +1,128 @@
+package com.example.library.metrics;
+
+import com.example.library.exception.BadRequestException;
+import com.example.library.exception.NotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Domain and hot-path meters. Every tag value comes from one of the enums below or a fixed outcome
+ * name, so the number of series stays bounded no matter what ids or emails pass through.
+ */
+@Component
+public class LibraryMetrics {
+
+    static final String OPERATIONS = "library.operations";
+    static final String JOB_DURATION = "library.jobs.duration";
+    static final String JOB_BATCH_SIZE = "library.jobs.batch.size";
+    static final String MAIL_SEND = "library.mail.send";
+    static final String JWT_VALIDATION = "library.jwt.validation";
+
+    public enum Operation { BORROW, RETURN, EXTEND, RESERVE, CANCEL }
+
+    public enum Job { CHECK_LOANS, CHECK_RESERVATIONS, PURGE_REFRESH_TOKENS }
+
+    public enum Mail { OVERDUE, LOAN_SUCCESS, ONE_DAY_LEFT, RESERVATION_CANCELLED, RESERVATION_ACCEPTED }
+
+    private final MeterRegistry registry;
+
+    public LibraryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Times {@code action} and counts it by outcome: {@code success}, {@code rejected} for a bad request,
+     * {@code not_found}, or {@code error} for anything unexpected. Exceptions are rethrown unchanged.
+     */
+    public <T> T operation(Operation operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } catch (NotFoundException | UsernameNotFoundException e) {
+            outcome = "not_found";
+            throw e;
+        } catch (BadRequestException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(OPERATIONS)
+                    .tag("operation", tagValue(operation))
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    public void operation(Operation operation, Runnable action) {
+        operation(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Times a scheduled job; {@code job} returns how many rows it processed, which is recorded as the batch size.
+     */
+    public void job(Job job, Supplier<Integer> run) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            int batchSize = run.get();
+            DistributionSummary.builder(JOB_BATCH_SIZE)
+                    .tag("job", tagValue(job))
+                    .register(registry)
+                    .record(batchSize);
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder(JOB_DURATION)
+                    .tag("job", tagValue(job))
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    public void mail(Mail mail, Runnable send) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "failure";
+        try {
+            send.run();
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder(MAIL_SEND)
+                    .tag("type", tagValue(mail))
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Times token validation; a {@code null} result or an exception from the parser counts as {@code invalid}.
+     */
+    public <T> T jwtValidation(Supplier<T> validation) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "invalid";
+        try {
+            T result = validation.get();
+            if (result != null) {
+                outcome = "valid";
+            }
+            return result;
+        } finally {
+            sample.stop(Timer.builder(JWT_VALIDATION)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
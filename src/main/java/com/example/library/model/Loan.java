@@ -15,6 +15,9 @@ import java.time.format.DateTimeFormatter;
 @Entity
 @Table(name = "loans")
 public class Loan {
+
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
     @Id
     @GeneratedValue(
             strategy = GenerationType.IDENTITY
@@ -42,7 +45,6 @@ public class Loan {
     private LocalDate returnDate;
 
     public String getFormattedEndDate() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-        return endDate.format(formatter);
+        return endDate.format(DISPLAY_DATE);
     }
 }
\ No newline at end of file
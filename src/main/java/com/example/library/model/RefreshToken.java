@@ -2,23 +2,32 @@ package com.example.library.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
 @Table(name = "refresh_tokens")
 public class RefreshToken {
 
+    // only the SHA-256 of the token is stored; a leaked table cannot be replayed
     @Id
     @JsonIgnore
+    @Column(name = "token_hash")
+    private String tokenHash;
+
+    // the token itself, known only on the instance that was just issued or presented
+    @Transient
+    @JsonIgnore
     private String token;
 
     @ManyToOne(optional = false)
@@ -31,4 +40,21 @@ public class RefreshToken {
 
     @Column(nullable = false)
     private Instant expiresAt;
-}
\ No newline at end of file
+
+    public RefreshToken(String token, User user, Instant createdAt, Instant expiresAt) {
+        this.token = token;
+        this.tokenHash = hash(token);
+        this.user = user;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
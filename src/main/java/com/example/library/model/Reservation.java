@@ -16,6 +16,9 @@ import java.time.format.DateTimeFormatter;
 @Entity
 @Table(name = "reservations")
 public class Reservation {
+
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -40,7 +43,6 @@ public class Reservation {
     private ReservationStatus status;
 
     public String getFormattedExpirationDate() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-        return expirationDate.format(formatter);
+        return expirationDate.format(DISPLAY_DATE);
     }
 }
@@ -1,8 +1,12 @@
 package com.example.library.repository;
 
 import com.example.library.model.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +19,25 @@ public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificat
     boolean existsByAuthor(String author);
     List<Book> findByTitle(String title);
     List<Book> findByAuthor(String author);
-}
\ No newline at end of file
+    List<Book> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Ranked search over the generated {@code search_vector} column (prefix matches) with a trigram
+     * word-similarity fallback for misspelled words. Both predicates are served by GIN indexes (V11).
+     */
+    @Query(value = """
+            SELECT b.* FROM books b
+            WHERE b.search_vector @@ to_tsquery('simple', :tsQuery)
+               OR :text <% lower(b.title || ' ' || b.author)
+            ORDER BY ts_rank_cd(b.search_vector, to_tsquery('simple', :tsQuery)) DESC,
+                     word_similarity(:text, lower(b.title || ' ' || b.author)) DESC,
+                     b.id
+            """,
+            countQuery = """
+            SELECT count(*) FROM books b
+            WHERE b.search_vector @@ to_tsquery('simple', :tsQuery)
+               OR :text <% lower(b.title || ' ' || b.author)
+            """,
+            nativeQuery = true)
+    Page<Book> searchFullText(@Param("tsQuery") String tsQuery, @Param("text") String text, Pageable pageable);
+}
@@ -4,6 +4,9 @@ import com.example.library.model.Book;
 import com.example.library.model.Copy;
 import com.example.library.model.CopyStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +20,10 @@ public interface CopyRepository extends JpaRepository<Copy, Long> {
     List<Copy> findByStatus(CopyStatus status);
     List<Copy> findByBookIdAndLibraryId(Long bookId, Long libraryId);
     boolean existsByBook(Book book);
+
+    @Modifying
+    @Query("UPDATE Copy c SET c.status = com.example.library.model.CopyStatus.BORROWED " +
+            "WHERE c.id = :copyId AND (c.status = com.example.library.model.CopyStatus.AVAILABLE " +
+            "OR (:reserved = true AND c.status = com.example.library.model.CopyStatus.RESERVED))")
+    int markBorrowed(@Param("copyId") Long copyId, @Param("reserved") boolean reserved);
 }
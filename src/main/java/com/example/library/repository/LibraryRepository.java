@@ -8,7 +8,7 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import java.util.List;
 import java.util.Optional;
 
-public interface LibraryRepository extends JpaRepository<Library, Long>, JpaSpecificationExecutor<Library> {
+public interface LibraryRepository extends JpaRepository<Library, Long>, JpaSpecificationExecutor<Library>, LibrarySearchRepository {
     Optional<Library> findByName(String name);
     Optional<Library> findByAddress(String location);
     List<Library> findByStatus(LibraryStatus status);
@@ -0,0 +1,11 @@
+package com.example.library.repository;
+
+import com.example.library.dto.LibrarySummaryDTO;
+import com.example.library.model.Library;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface LibrarySearchRepository {
+    Page<LibrarySummaryDTO> findSummaries(Specification<Library> specification, Pageable pageable);
+}
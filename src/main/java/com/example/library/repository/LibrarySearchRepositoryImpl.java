@@ -0,0 +1,27 @@
+package com.example.library.repository;
+
+import com.example.library.dto.LibrarySummaryDTO;
+import com.example.library.model.Library;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class LibrarySearchRepositoryImpl implements LibrarySearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<LibrarySummaryDTO> findSummaries(Specification<Library> specification, Pageable pageable) {
+        return SpecificationProjections.findPage(entityManager, Library.class, LibrarySummaryDTO.class, specification, pageable,
+                root -> List.of(
+                        root.get("id"),
+                        root.get("name"),
+                        root.get("address"),
+                        root.get("status")));
+    }
+}
@@ -1,22 +1,39 @@
 package com.example.library.repository;
 
+import com.example.library.dto.LoanDTO;
 import com.example.library.model.Loan;
 import com.example.library.model.Reservation;
 import com.example.library.model.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 public interface LoanRepository extends JpaRepository<Loan, Long> {
+    @EntityGraph(attributePaths = {"user", "copy", "copy.book", "copy.library"})
     List<Loan> findByUserId(Long userId);
+    @EntityGraph(attributePaths = {"user", "copy", "copy.book", "copy.library"})
     List<Loan> findByUserIdAndReturnDateIsNull(Long userId);
     Optional<Loan> findByUserIdAndCopyIdAndReturnDateIsNull(Long userId, Long copyId);
     boolean existsLoanByCopy_Id(Long copyId);
     Optional<Loan> findLoanByCopy_Id(Long copyId);
     Optional<Loan> findByIdAndReturnDateIsNull(Long loanId);
+    @EntityGraph(attributePaths = {"user", "copy", "copy.book", "copy.library"})
     List<Loan> findByEndDateBeforeAndReturnDateIsNull(LocalDate dueDate);
+    @EntityGraph(attributePaths = {"user", "copy", "copy.book", "copy.library"})
     List<Loan> findByCopy_Library_Id(Long libraryId);
     boolean existsByUserIdAndReturnDateIsNull(Long userId);
+    boolean existsByUserIdAndCopyLibraryId(Long userId, Long libraryId);
+
+    // keyset page of DTOs: nothing is managed, so reading page after page does not grow a persistence context
+    @Query("SELECT new com.example.library.dto.LoanDTO(l.id, u.id, u.email, c.id, b.title, lib.id, lib.name, " +
+            "l.startDate, l.endDate, l.returnDate) " +
+            "FROM Loan l JOIN l.user u JOIN l.copy c JOIN c.book b JOIN c.library lib " +
+            "WHERE l.id > :afterId ORDER BY l.id")
+    List<LoanDTO> findDtoPageAfter(@Param("afterId") long afterId, Pageable pageable);
 }
\ No newline at end of file
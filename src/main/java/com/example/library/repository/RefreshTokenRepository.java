@@ -3,12 +3,42 @@ package com.example.library.repository;
 import com.example.library.model.RefreshToken;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.time.Instant;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
-    Optional<RefreshToken> findByToken(String token);
+
+    // one row per user: a new login replaces the previous token in place
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO refresh_tokens (token_hash, user_id, created_at, expires_at)
+            VALUES (:tokenHash, :userId, :createdAt, :expiresAt)
+            ON CONFLICT (user_id) DO UPDATE
+               SET token_hash = EXCLUDED.token_hash,
+                   created_at = EXCLUDED.created_at,
+                   expires_at = EXCLUDED.expires_at
+            """, nativeQuery = true)
+    void rotate(@Param("userId") Long userId, @Param("tokenHash") String tokenHash,
+                @Param("createdAt") Instant createdAt, @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // SKIP LOCKED lets replicas purge at the same time without waiting on each other's chunks
     @Transactional
-    void deleteByUserId(Long userId);
-}
\ No newline at end of file
+    @Modifying
+    @Query(value = """
+            DELETE FROM refresh_tokens
+             WHERE token_hash IN (SELECT token_hash FROM refresh_tokens
+                                   WHERE expires_at < :now
+                                   LIMIT :limit
+                                     FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
@@ -2,21 +2,36 @@ package com.example.library.repository;
 
 import com.example.library.model.Reservation;
 import com.example.library.model.ReservationStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    @EntityGraph(attributePaths = {"user", "copy", "copy.book", "copy.library"})
     List<Reservation> findAllByUserIdAndStatus(Long userId, ReservationStatus status);
+    @EntityGraph(attributePaths = {"user", "copy", "copy.book", "copy.library"})
     List<Reservation> findAllByUserId(Long userId);
+    @EntityGraph(attributePaths = {"user", "copy", "copy.book", "copy.library"})
     List<Reservation> findAllByExpirationDateBeforeAndStatus(LocalDate date, ReservationStatus status);
     Optional<Reservation> findByCopy_IdAndStatus(Long copyId, ReservationStatus status);
     boolean existsReservationByCopy_IdAndUser_IdAndStatus(Long copyId, Long userID, ReservationStatus status);
     boolean existsReservationByCopy_Id(Long copyId);
+    @EntityGraph(attributePaths = {"user", "copy", "copy.book", "copy.library"})
     List<Reservation> findByExpirationDate(LocalDate date);
     Optional<Reservation> findReservationByCopy_Id(Long copyId);
+    @EntityGraph(attributePaths = {"user", "copy", "copy.book", "copy.library"})
     List<Reservation> findByCopyLibraryId(Long libraryId);
     boolean existsByUserIdAndStatus(Long userId, ReservationStatus status);
+    boolean existsByUserIdAndCopyLibraryId(Long userId, Long libraryId);
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = com.example.library.model.ReservationStatus.REALIZED " +
+            "WHERE r.copy.id = :copyId AND r.status = com.example.library.model.ReservationStatus.WAITING")
+    int realizeWaitingReservation(@Param("copyId") Long copyId);
 }
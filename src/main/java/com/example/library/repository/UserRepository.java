@@ -4,14 +4,21 @@ import com.example.library.model.User;
 import com.example.library.model.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>, UserSearchRepository {
     Optional<User> findByEmailAndActiveTrue(String email);
     List<User> findAllByActiveTrue();
     List<User> findByRoleAndActiveTrue(UserRole role);
     List<User> findByRoleAndLibraryIdAndActiveTrue(UserRole role, Long libraryId);
     long countByRoleAndActiveTrue(UserRole role);
+
+    @Query("SELECT u FROM User u WHERE " +
+            "EXISTS (SELECT 1 FROM Loan l WHERE l.user = u AND l.copy.library.id = :libraryId) OR " +
+            "EXISTS (SELECT 1 FROM Reservation r WHERE r.user = u AND r.copy.library.id = :libraryId)")
+    List<User> findRelatedToLibrary(@Param("libraryId") Long libraryId);
 }
\ No newline at end of file
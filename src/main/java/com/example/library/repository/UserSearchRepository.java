@@ -0,0 +1,11 @@
+package com.example.library.repository;
+
+import com.example.library.dto.UserInfoDTO;
+import com.example.library.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface UserSearchRepository {
+    Page<UserInfoDTO> findUserInfos(Specification<User> specification, Pageable pageable);
+}
@@ -0,0 +1,30 @@
+package com.example.library.repository;
+
+import com.example.library.dto.UserInfoDTO;
+import com.example.library.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.JoinType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<UserInfoDTO> findUserInfos(Specification<User> specification, Pageable pageable) {
+        return SpecificationProjections.findPage(entityManager, User.class, UserInfoDTO.class, specification, pageable,
+                root -> List.of(
+                        root.get("id"),
+                        root.get("email"),
+                        root.get("name"),
+                        root.get("surname"),
+                        root.get("role"),
+                        root.join("library", JoinType.LEFT).get("id")));
+    }
+}
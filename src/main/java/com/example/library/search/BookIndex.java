@@ -0,0 +1,395 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over book title, author and ISBN ranked with BM25.
+ * <p>
+ * Title and author words are indexed as full terms (with term frequency) and as edge n-grams between
+ * {@code minGram} and {@code maxGram} characters, so "gats" finds "gatsby" without scanning the
+ * dictionary. ISBNs are indexed as a single normalized term only. Every query token has to match,
+ * either as a full term or as a word prefix; full-term hits score higher. A token longer than
+ * {@code maxGram} has no n-gram of its own: the word dictionary is kept sorted, and the postings of
+ * the words that start with the whole token are used instead.
+ * <p>
+ * Documents are never rewritten in place: an update appends a new doc id and tombstones the old one.
+ * Tombstoned postings are skipped at query time and dropped when the index is rebuilt.
+ * Searches share a read lock, writes take the write lock.
+ */
+public class BookIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_WEIGHT = 0.5f;
+    private static final int MISSING = -1;
+
+    private final int minGram;
+    private final int maxGram;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // sorted, so the words starting with a token longer than maxGram form one contiguous range
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Postings> isbns = new HashMap<>();
+    private final Map<String, Postings> prefixes = new HashMap<>();
+    private final LongIntHashMap docsByBookId;
+
+    private long[] bookIds;
+    private int[] docLengths;
+    private long[] deleted;
+    private int docCount;
+    private int liveCount;
+    private long totalLength;
+
+    public BookIndex(int minGram, int maxGram, int expectedBooks) {
+        if (minGram < 1 || maxGram < minGram) {
+            throw new IllegalArgumentException("Invalid n-gram range " + minGram + ".." + maxGram);
+        }
+        this.minGram = minGram;
+        this.maxGram = maxGram;
+        int capacity = Math.max(16, expectedBooks);
+        this.docsByBookId = new LongIntHashMap(capacity);
+        this.bookIds = new long[capacity];
+        this.docLengths = new int[capacity];
+        this.deleted = new long[(capacity >> 6) + 1];
+    }
+
+    public void add(long bookId, String title, String author, String isbn) {
+        List<String> words = new ArrayList<>(BookSearchQuery.split(title, Integer.MAX_VALUE));
+        words.addAll(BookSearchQuery.split(author, Integer.MAX_VALUE));
+        String isbnTerm = normalizeIsbn(isbn);
+
+        String[] sorted = words.toArray(String[]::new);
+        Arrays.sort(sorted);
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : sorted) {
+            for (int length = minGram; length <= Math.min(maxGram, word.length()); length++) {
+                grams.add(word.substring(0, length));
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeDoc(bookId);
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            bookIds[doc] = bookId;
+            docLengths[doc] = sorted.length;
+            docsByBookId.put(bookId, doc);
+            liveCount++;
+            totalLength += sorted.length;
+
+            for (int i = 0; i < sorted.length; ) {
+                int end = i + 1;
+                while (end < sorted.length && sorted[end].equals(sorted[i])) {
+                    end++;
+                }
+                terms.computeIfAbsent(sorted[i], term -> new Postings(true)).add(doc, end - i);
+                i = end;
+            }
+            for (String gram : grams) {
+                prefixes.computeIfAbsent(gram, prefix -> new Postings(false)).add(doc, 1);
+            }
+            if (isbnTerm != null) {
+                isbns.computeIfAbsent(isbnTerm, term -> new Postings(true)).add(doc, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SearchHits search(String query, int offset, int limit) {
+        List<String> tokens = queryTokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return SearchHits.EMPTY;
+        }
+        int allTokens = (1 << tokens.size()) - 1;
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return SearchHits.EMPTY;
+            }
+            float averageLength = Math.max(1f, (float) totalLength / liveCount);
+            Postings[] exact = new Postings[tokens.size()];
+            Postings[][] prefix = new Postings[tokens.size()][];
+            int[] sizes = new int[tokens.size()];
+            Integer[] order = new Integer[tokens.size()];
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                exact[i] = terms.get(token);
+                if (exact[i] == null) {
+                    exact[i] = isbns.get(token);
+                }
+                prefix[i] = prefixPostings(token);
+                sizes[i] = sizeOf(exact[i]);
+                for (Postings postings : prefix[i]) {
+                    sizes[i] += postings.size();
+                }
+                if (sizes[i] == 0) {
+                    return SearchHits.EMPTY;
+                }
+                order[i] = i;
+            }
+            // Start from the rarest token; later tokens only update documents that are still candidates.
+            Arrays.sort(order, Comparator.comparingInt(i -> sizes[i]));
+
+            ScoreAccumulator accumulator = new ScoreAccumulator(sizes[order[0]]);
+            for (int rank = 0; rank < order.length; rank++) {
+                int i = order[rank];
+                int tokenBit = 1 << i;
+                boolean insert = rank == 0;
+                if (exact[i] != null) {
+                    score(accumulator, exact[i], tokenBit, 1f, averageLength, insert);
+                }
+                for (Postings postings : prefix[i]) {
+                    score(accumulator, postings, tokenBit, PREFIX_WEIGHT, averageLength, insert);
+                }
+            }
+
+            TopDocs top = new TopDocs((int) Math.min((long) offset + limit, liveCount));
+            long total = 0;
+            for (int slot = 0; slot < accumulator.capacity(); slot++) {
+                int doc = accumulator.docAt(slot);
+                if (doc < 0 || accumulator.maskAt(slot) != allTokens || isDeleted(doc)) {
+                    continue;
+                }
+                total++;
+                top.offer(doc, accumulator.scoreAt(slot));
+            }
+
+            int[] ranked = top.toSortedArray();
+            int from = Math.min(offset, ranked.length);
+            long[] ids = new long[ranked.length - from];
+            for (int i = from; i < ranked.length; i++) {
+                ids[i - from] = bookIds[ranked[i]];
+            }
+            return new SearchHits(total, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return docCount == 0 ? 0 : (double) (docCount - liveCount) / docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Releases the growth headroom of every postings list, meant to be called once after a bulk build.
+     */
+    public void trimToSize() {
+        lock.writeLock().lock();
+        try {
+            terms.values().forEach(Postings::trimToSize);
+            isbns.values().forEach(Postings::trimToSize);
+            prefixes.values().forEach(Postings::trimToSize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static List<String> queryTokens(String query) {
+        if (query == null) {
+            return List.of();
+        }
+        String compact = query.replaceAll("[\\s-]", "");
+        if (compact.matches("\\d{9}[\\dXx]|\\d{13}")) {
+            return List.of(compact.toLowerCase(Locale.ROOT));
+        }
+        return BookSearchQuery.tokenize(query);
+    }
+
+    private static String normalizeIsbn(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        String normalized = isbn.replaceAll("[^\\dXx]", "").toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static int sizeOf(Postings postings) {
+        return postings == null ? 0 : postings.size();
+    }
+
+    /**
+     * Postings of the words {@code token} is a proper prefix of: its edge n-gram while the token fits
+     * in {@code maxGram}, otherwise the longer words of the dictionary that start with it.
+     */
+    private Postings[] prefixPostings(String token) {
+        if (token.length() < minGram) {
+            return new Postings[0];
+        }
+        if (token.length() <= maxGram) {
+            Postings gram = prefixes.get(token);
+            return gram == null ? new Postings[0] : new Postings[]{gram};
+        }
+        List<Postings> words = new ArrayList<>();
+        for (Map.Entry<String, Postings> word : terms.tailMap(token, false).entrySet()) {
+            if (!word.getKey().startsWith(token)) {
+                break;
+            }
+            words.add(word.getValue());
+        }
+        return words.toArray(Postings[]::new);
+    }
+
+    private void score(ScoreAccumulator accumulator, Postings postings, int tokenBit,
+                       float weight, float averageLength, boolean insert) {
+        int df = postings.size();
+        float idf = (float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+        for (int p = 0; p < df; p++) {
+            int doc = postings.doc(p);
+            int tf = postings.freq(p);
+            float norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+            float score = weight * idf * tf * (K1 + 1) / (tf + norm);
+            if (insert) {
+                accumulator.add(doc, score, tokenBit);
+            } else {
+                accumulator.addIfPresent(doc, score, tokenBit);
+            }
+        }
+    }
+
+    private void removeDoc(long bookId) {
+        int doc = docsByBookId.remove(bookId, MISSING);
+        if (doc == MISSING) {
+            return;
+        }
+        deleted[doc >> 6] |= 1L << doc;
+        liveCount--;
+        totalLength -= docLengths[doc];
+    }
+
+    private boolean isDeleted(int doc) {
+        return (deleted[doc >> 6] & (1L << doc)) != 0;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= bookIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, bookIds.length + (bookIds.length >> 1));
+        bookIds = Arrays.copyOf(bookIds, capacity);
+        docLengths = Arrays.copyOf(docLengths, capacity);
+        deleted = Arrays.copyOf(deleted, (capacity >> 6) + 1);
+    }
+
+    public record SearchHits(long total, long[] bookIds) {
+        static final SearchHits EMPTY = new SearchHits(0, new long[0]);
+    }
+
+    /**
+     * Bounded min-heap keeping the best {@code k} documents; ties go to the older document.
+     */
+    private static final class TopDocs {
+
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        TopDocs(int k) {
+            docs = new int[k];
+            scores = new float[k];
+        }
+
+        void offer(int doc, float score) {
+            if (docs.length == 0) {
+                return;
+            }
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (worse(docs[0], scores[0], doc, score)) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int[] toSortedArray() {
+            int[] sorted = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                sorted[i] = docs[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return sorted;
+        }
+
+        private static boolean worse(int doc, float score, int otherDoc, float otherScore) {
+            return score < otherScore || (score == otherScore && doc > otherDoc);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >> 1;
+                if (!worse(docs[index], scores[index], docs[parent], scores[parent])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int child = left + 1 < size && worse(docs[left + 1], scores[left + 1], docs[left], scores[left])
+                        ? left + 1 : left;
+                if (!worse(docs[child], scores[child], docs[index], scores[index])) {
+                    return;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
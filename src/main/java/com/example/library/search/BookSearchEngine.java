@@ -0,0 +1,19 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface BookSearchEngine {
+
+    Page<Book> search(String query, Pageable pageable);
+
+    /**
+     * Called after a book was saved. Engines that query the database directly have nothing to do.
+     */
+    default void onBookSaved(Book book) {
+    }
+
+    default void onBookDeleted(Long bookId) {
+    }
+}
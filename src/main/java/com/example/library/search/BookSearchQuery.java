@@ -0,0 +1,41 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class BookSearchQuery {
+
+    static final int MAX_TOKENS = 8;
+
+    private BookSearchQuery() {
+    }
+
+    public static List<String> tokenize(String text) {
+        return split(text, MAX_TOKENS);
+    }
+
+    static List<String> split(String text, int maxTokens) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String part : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!part.isEmpty()) {
+                tokens.add(part);
+                if (tokens.size() == maxTokens) {
+                    break;
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Builds a prefix tsquery, e.g. "great gats" becomes "great:* & gats:*".
+     * Tokens only contain letters and digits, so no tsquery operators can leak in.
+     */
+    public static String toPrefixTsQuery(List<String> tokens) {
+        return String.join(" & ", tokens.stream().map(token -> token + ":*").toList());
+    }
+}
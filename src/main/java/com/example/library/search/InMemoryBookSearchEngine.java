@@ -0,0 +1,175 @@
+package com.example.library.search;
+
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serves book search from a {@link BookIndex} held in the heap. The index is built from the database
+ * once the application is ready and kept current by {@link #onBookSaved} / {@link #onBookDeleted}.
+ * Writes that arrive while a rebuild is running are replayed onto the new index before it is swapped in.
+ * Book changes made on other nodes arrive through the {@link CacheInvalidationBus}.
+ */
+@Component
+@ConditionalOnProperty(name = "books.search.engine", havingValue = "memory")
+public class InMemoryBookSearchEngine implements BookSearchEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryBookSearchEngine.class);
+
+    private final BookRepository bookRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final int minGram;
+    private final int maxGram;
+    private final int batchSize;
+    private final double compactionThreshold;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile BookIndex index;
+    private List<Consumer<BookIndex>> pendingWrites;
+
+    public InMemoryBookSearchEngine(
+            BookRepository bookRepository,
+            CacheInvalidationBus cacheInvalidationBus,
+            @Value("${books.search.memory.min-gram:3}") int minGram,
+            @Value("${books.search.memory.max-gram:6}") int maxGram,
+            @Value("${books.search.memory.batch-size:5000}") int batchSize,
+            @Value("${books.search.memory.compaction-threshold:0.2}") double compactionThreshold) {
+        this.bookRepository = bookRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.minGram = minGram;
+        this.maxGram = maxGram;
+        this.batchSize = batchSize;
+        this.compactionThreshold = compactionThreshold;
+        this.index = new BookIndex(minGram, maxGram, 0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        cacheInvalidationBus.subscribe(this::onInvalidation);
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${books.search.memory.compaction-check-interval:PT10M}")
+    public void compactIfNeeded() {
+        if (index.deletedRatio() > compactionThreshold) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            writeLock.lock();
+            try {
+                pendingWrites = new ArrayList<>();
+            } finally {
+                writeLock.unlock();
+            }
+
+            BookIndex fresh = new BookIndex(minGram, maxGram, (int) bookRepository.count());
+            long lastId = 0;
+            List<Book> batch;
+            do {
+                batch = bookRepository.findByIdGreaterThan(lastId, PageRequest.of(0, batchSize, Sort.by("id")));
+                for (Book book : batch) {
+                    fresh.add(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+                    lastId = book.getId();
+                }
+            } while (batch.size() == batchSize);
+            fresh.trimToSize();
+
+            writeLock.lock();
+            try {
+                pendingWrites.forEach(write -> write.accept(fresh));
+                index = fresh;
+            } finally {
+                pendingWrites = null;
+                writeLock.unlock();
+            }
+            log.info("Book search index built with {} books in {} ms",
+                    fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @Override
+    public Page<Book> search(String query, Pageable pageable) {
+        BookIndex.SearchHits hits = index.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits.bookIds().length == 0) {
+            return new PageImpl<>(List.of(), pageable, hits.total());
+        }
+
+        List<Long> ids = Arrays.stream(hits.bookIds()).boxed().toList();
+        Map<Long, Book> booksById = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> books = ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(books, pageable, hits.total());
+    }
+
+    @Override
+    public void onBookSaved(Book book) {
+        apply(target -> target.add(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn()));
+    }
+
+    @Override
+    public void onBookDeleted(Long bookId) {
+        apply(target -> target.remove(bookId));
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (!invalidation.concerns(Book.class)) {
+            return;
+        }
+        if (invalidation.id() == null) {
+            rebuild();
+            return;
+        }
+        bookRepository.findById(invalidation.id())
+                .ifPresentOrElse(this::onBookSaved, () -> onBookDeleted(invalidation.id()));
+    }
+
+    private void apply(Consumer<BookIndex> write) {
+        writeLock.lock();
+        try {
+            write.accept(index);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import com.example.library.specification.BookSpecification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Portable fallback used with H2: every token has to be a word prefix of the title or the author.
+ * There is no typo tolerance and results are ordered by title instead of by rank.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "books.search.engine", havingValue = "jpa")
+public class JpaBookSearchEngine implements BookSearchEngine {
+
+    private final BookRepository bookRepository;
+
+    @Override
+    public Page<Book> search(String query, Pageable pageable) {
+        List<String> tokens = BookSearchQuery.tokenize(query);
+        if (tokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Specification<Book> specification = Specification.where(null);
+        for (String token : tokens) {
+            specification = specification.and(BookSpecification.hasWordStartingWith(token));
+        }
+
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("title", "id"));
+        return bookRepository.findAll(specification, sorted);
+    }
+}
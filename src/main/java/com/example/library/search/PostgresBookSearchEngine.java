@@ -0,0 +1,31 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "books.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresBookSearchEngine implements BookSearchEngine {
+
+    private final BookRepository bookRepository;
+
+    @Override
+    public Page<Book> search(String query, Pageable pageable) {
+        List<String> tokens = BookSearchQuery.tokenize(query);
+        if (tokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return bookRepository.searchFullText(
+                BookSearchQuery.toPrefixTsQuery(tokens),
+                String.join(" ", tokens),
+                pageable);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.library.search;
+
+import java.util.Arrays;
+
+/**
+ * Doc ids in ascending order, with term frequencies for full terms. Prefix postings skip the
+ * frequency array since an edge n-gram only records that a word in the document starts with it.
+ */
+final class Postings {
+
+    private int[] docs;
+    private int[] freqs;
+    private int size;
+
+    Postings(boolean withFrequencies) {
+        docs = new int[4];
+        freqs = withFrequencies ? new int[4] : null;
+    }
+
+    void add(int doc, int freq) {
+        if (size == docs.length) {
+            int capacity = size + (size >> 1) + 1;
+            docs = Arrays.copyOf(docs, capacity);
+            if (freqs != null) {
+                freqs = Arrays.copyOf(freqs, capacity);
+            }
+        }
+        docs[size] = doc;
+        if (freqs != null) {
+            freqs[size] = freq;
+        }
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int doc(int index) {
+        return docs[index];
+    }
+
+    int freq(int index) {
+        return freqs == null ? 1 : freqs[index];
+    }
+
+    void trimToSize() {
+        docs = Arrays.copyOf(docs, size);
+        if (freqs != null) {
+            freqs = Arrays.copyOf(freqs, size);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.library.search;
+
+import java.util.Arrays;
+
+/**
+ * Per-query doc id to score map. The mask records which query tokens matched a document so that
+ * only documents matching every token are returned.
+ */
+final class ScoreAccumulator {
+
+    private static final int EMPTY = -1;
+
+    private int[] docs;
+    private float[] scores;
+    private int[] masks;
+    private int mask;
+    private int size;
+
+    ScoreAccumulator(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    void add(int doc, float score, int tokenBit) {
+        if ((size + 1) * 2 > docs.length) {
+            resize(docs.length * 2);
+        }
+        int slot = (doc * 0x9E3779B9) & mask;
+        while (docs[slot] != EMPTY && docs[slot] != doc) {
+            slot = (slot + 1) & mask;
+        }
+        if (docs[slot] == EMPTY) {
+            docs[slot] = doc;
+            size++;
+        }
+        scores[slot] += score;
+        masks[slot] |= tokenBit;
+    }
+
+    void addIfPresent(int doc, float score, int tokenBit) {
+        int slot = (doc * 0x9E3779B9) & mask;
+        while (docs[slot] != EMPTY) {
+            if (docs[slot] == doc) {
+                scores[slot] += score;
+                masks[slot] |= tokenBit;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int capacity() {
+        return docs.length;
+    }
+
+    int docAt(int slot) {
+        return docs[slot];
+    }
+
+    float scoreAt(int slot) {
+        return scores[slot];
+    }
+
+    int maskAt(int slot) {
+        return masks[slot];
+    }
+
+    private void resize(int capacity) {
+        int[] oldDocs = docs;
+        float[] oldScores = scores;
+        int[] oldMasks = masks;
+        allocate(capacity);
+        for (int i = 0; i < oldDocs.length; i++) {
+            int doc = oldDocs[i];
+            if (doc == EMPTY) {
+                continue;
+            }
+            int slot = (doc * 0x9E3779B9) & mask;
+            while (docs[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            docs[slot] = doc;
+            scores[slot] = oldScores[i];
+            masks[slot] = oldMasks[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        docs = new int[capacity];
+        scores = new float[capacity];
+        masks = new int[capacity];
+        Arrays.fill(docs, EMPTY);
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.library.security;
+
+import java.time.Duration;
+
+/**
+ * A token bucket that holds up to {@code capacity} tokens and refills {@code capacity} tokens per {@code period},
+ * so a client can send a burst of {@code capacity} requests and then one every {@code period / capacity}.
+ */
+public record BucketLimit(int capacity, Duration period) {
+
+    public double tokensPerMilli() {
+        return (double) capacity / period.toMillis();
+    }
+
+    public long millisUntil(double missingTokens) {
+        return (long) Math.ceil(missingTokens * period.toMillis() / capacity);
+    }
+
+    public double tokensPerSecond() {
+        return tokensPerMilli() * 1000;
+    }
+}
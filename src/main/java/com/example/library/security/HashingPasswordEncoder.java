@@ -0,0 +1,134 @@
+package com.example.library.security;
+
+import com.example.library.exception.LoginCapacityExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Puts two limits on the BCrypt work behind logins and registrations.
+ *
+ * <p>Hashing runs on a fixed pool of platform threads, one per core by default, with a short queue. When both
+ * are full the call fails at once with {@link LoginCapacityExceededException} (429). A login storm therefore
+ * gets fast rejections instead of a growing backlog, and the CPU is left for requests that are already in flight.
+ *
+ * <p>After a password matches, an HMAC of it is kept next to the stored hash for a while, so an immediate
+ * re-login (another tab, an app re-authenticating) skips BCrypt. The HMAC key is random and lives only in
+ * memory. Failed attempts are never cached, so guessing still pays the full cost. A changed password has a
+ * different stored hash, so no entry outlives it.
+ */
+public class HashingPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final LoginCapacityExceededException SATURATED =
+            new LoginCapacityExceededException("Too many login attempts at once, try again shortly");
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, byte[]> verified;
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * @param threads hashing threads, or 0 to hash on the calling thread without a limit
+     * @param verificationTtl how long a successful check is remembered, or zero to always run BCrypt
+     */
+    public HashingPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  long verificationCacheSize, Duration verificationTtl) {
+        this.delegate = delegate;
+        this.executor = threads > 0
+                ? new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                        Thread.ofPlatform().name("password-hash-", 0).daemon().factory(),
+                        new ThreadPoolExecutor.AbortPolicy())
+                : null;
+        this.verified = verificationTtl.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(verificationCacheSize)
+                .expireAfterWrite(verificationTtl)
+                .build();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec secret = new SecretKeySpec(key, HMAC);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC);
+                instance.init(secret);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (verified == null || rawPassword == null || encodedPassword == null) {
+            return hash(() -> delegate.matches(rawPassword, encodedPassword));
+        }
+        byte[] digest = digest(rawPassword);
+        byte[] known = verified.getIfPresent(encodedPassword);
+        if (known != null && MessageDigest.isEqual(known, digest)) {
+            return true;
+        }
+        boolean matches = hash(() -> delegate.matches(rawPassword, encodedPassword));
+        if (matches) {
+            verified.put(encodedPassword, digest);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private <T> T hash(Supplier<T> work) {
+        if (executor == null) {
+            return work.get();
+        }
+        try {
+            return executor.submit(work::get).get();
+        } catch (RejectedExecutionException e) {
+            throw SATURATED;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] digest(CharSequence rawPassword) {
+        return mac.get().doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
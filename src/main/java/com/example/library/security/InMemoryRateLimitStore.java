@@ -0,0 +1,68 @@
+package com.example.library.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Buckets of a single node. Taking a token is a compare-and-set on the bucket's state, so concurrent logins
+ * never wait on each other. At most {@code max-keys} buckets are kept, and a bucket idle for
+ * {@code idle-timeout} is dropped; it would be full again by then anyway, provided the timeout is not
+ * shorter than the longest refill period. With several replicas each one counts separately.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Clock clock;
+    private final Cache<String, TokenBucket> buckets;
+
+    public InMemoryRateLimitStore(
+            Clock clock,
+            @Value("${app.security.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${app.security.rate-limit.idle-timeout:PT10M}") Duration idleTimeout) {
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public long tryConsume(String key, BucketLimit limit) {
+        long now = clock.millis();
+        return buckets.get(key, k -> new TokenBucket(limit.capacity(), now)).tryConsume(now, limit);
+    }
+
+    private static final class TokenBucket {
+
+        private record State(double tokens, long refilledAt) {
+        }
+
+        private final AtomicReference<State> state;
+
+        TokenBucket(double tokens, long now) {
+            this.state = new AtomicReference<>(new State(tokens, now));
+        }
+
+        long tryConsume(long now, BucketLimit limit) {
+            while (true) {
+                State current = state.get();
+                double tokens = Math.min(limit.capacity(),
+                        current.tokens() + Math.max(0, now - current.refilledAt()) * limit.tokensPerMilli());
+                if (tokens < 1) {
+                    return limit.millisUntil(1 - tokens);
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.refilledAt())))) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.library.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Applies {@link LoginRateLimiter} to {@code POST /auth/login} and {@code POST /auth/refresh} ahead of the JWT
+ * filter. The account of a login is read from the JSON body, which is buffered and handed on unchanged.
+ * Not a bean: {@code SecurityConfig} adds it to the security chain only, so it is not also registered as a
+ * servlet filter.
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN = "/auth/login";
+    private static final String REFRESH = "/auth/refresh";
+    // a login body is an e-mail and a password; anything longer is passed on without an account check
+    private static final int MAX_BUFFERED_BODY = 4096;
+
+    private final LoginRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public LoginRateLimitFilter(LoginRateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !"POST".equals(request.getMethod()) || !(LOGIN.equals(path) || REFRESH.equals(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean login = LOGIN.equals(request.getServletPath());
+        String account = null;
+        HttpServletRequest forwarded = request;
+
+        if (login) {
+            InputStream body = request.getInputStream();
+            byte[] head = body.readNBytes(MAX_BUFFERED_BODY + 1);
+            if (head.length <= MAX_BUFFERED_BODY) {
+                account = email(head);
+            }
+            forwarded = new BufferedBodyRequest(request, head, head.length <= MAX_BUFFERED_BODY ? null : body);
+        }
+
+        long wait = rateLimiter.acquire(login ? "login" : "refresh", request.getRemoteAddr(), account);
+        if (wait > 0) {
+            long retryAfter = Math.max(1, (wait + 999) / 1000);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    Map.of("error", "Too many attempts, try again in " + retryAfter + " s"));
+            return;
+        }
+        chain.doFilter(forwarded, response);
+    }
+
+    private String email(byte[] body) {
+        try {
+            return objectMapper.readTree(body).path("email").textValue();
+        } catch (IOException e) {
+            // malformed body: the controller rejects it, the address limit still applies
+            return null;
+        }
+    }
+
+    /**
+     * Replays the buffered head of the body, then whatever the container has not handed out yet ({@code rest} is
+     * {@code null} when the whole body fit into the head). Reads block as before, so the stream is always ready.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream inputStream;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] head, InputStream rest) {
+            super(request);
+            this.inputStream = new ServletInputStream() {
+                private final ByteArrayInputStream buffered = new ByteArrayInputStream(head);
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = buffered.read();
+                    if (b == -1 && rest != null) {
+                        b = rest.read();
+                    }
+                    finished = b == -1;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    if (length == 0) {
+                        return 0;
+                    }
+                    int n = buffered.read(buffer, offset, length);
+                    if (n == -1 && rest != null) {
+                        n = rest.read(buffer, offset, length);
+                    }
+                    finished = n == -1;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished || (rest == null && buffered.available() == 0);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // always ready, so the listener reads everything in onDataAvailable
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(inputStream,
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
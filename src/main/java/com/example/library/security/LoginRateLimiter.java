@@ -0,0 +1,74 @@
+package com.example.library.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Token buckets in front of {@code /auth/login} and {@code /auth/refresh}: one per client address shared by
+ * both endpoints, and one per account for logins. A credential-stuffing client runs into its address limit,
+ * and a distributed attack on one account runs into the account limit, before any BCrypt work is done.
+ * Rejections are counted in {@code library.rate_limit.rejected{endpoint, limit}}.
+ */
+@Component
+public class LoginRateLimiter {
+
+    static final String REJECTED = "library.rate_limit.rejected";
+
+    private final RateLimitStore store;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final BucketLimit perAddress;
+    private final BucketLimit perAccount;
+
+    public LoginRateLimiter(
+            RateLimitStore store,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.security.rate-limit.ip.capacity:20}") int addressCapacity,
+            @Value("${app.security.rate-limit.ip.period:PT1M}") Duration addressPeriod,
+            @Value("${app.security.rate-limit.account.capacity:5}") int accountCapacity,
+            @Value("${app.security.rate-limit.account.period:PT1M}") Duration accountPeriod) {
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.perAddress = new BucketLimit(addressCapacity, addressPeriod);
+        this.perAccount = new BucketLimit(accountCapacity, accountPeriod);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * @param account the e-mail a login is for, or {@code null}
+     * @return 0 when the request may go on, otherwise the milliseconds until it would be let through
+     */
+    public long acquire(String endpoint, String address, String account) {
+        long wait = store.tryConsume("ip:" + address, perAddress);
+        if (wait > 0) {
+            rejected(endpoint, "ip");
+            return wait;
+        }
+        if (account != null && !account.isBlank()) {
+            wait = store.tryConsume("account:" + account.trim().toLowerCase(Locale.ROOT), perAccount);
+            if (wait > 0) {
+                rejected(endpoint, "account");
+                return wait;
+            }
+        }
+        return 0;
+    }
+
+    private void rejected(String endpoint, String limit) {
+        Counter.builder(REJECTED)
+                .tag("endpoint", endpoint)
+                .tag("limit", limit)
+                .register(meterRegistry)
+                .increment();
+    }
+}
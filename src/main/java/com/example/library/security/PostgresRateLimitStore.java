@@ -0,0 +1,47 @@
+package com.example.library.security;
+
+import com.example.library.exception.ErrorReporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Buckets in {@code rate_limit_buckets}, so every replica draws from the same ones. Each check is one call
+ * of {@code take_rate_limit_token}. If the database cannot be reached the request is let through. Logins
+ * need the database anyway, and the limiter should not add a second way to fail.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.rate-limit.store", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresRateLimitStore implements RateLimitStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ErrorReporter errorReporter;
+
+    @Value("${app.security.rate-limit.idle-timeout:PT10M}")
+    private Duration idleTimeout;
+
+    @Override
+    public long tryConsume(String key, BucketLimit limit) {
+        try {
+            Double waitSeconds = jdbcTemplate.queryForObject("SELECT take_rate_limit_token(?, ?, ?)",
+                    Double.class, key, (double) limit.capacity(), limit.tokensPerSecond());
+            return waitSeconds == null ? 0 : (long) Math.ceil(waitSeconds * 1000);
+        } catch (DataAccessException e) {
+            errorReporter.error("rate_limit.store", "Rate limit bucket lookup failed, request let through", e);
+            return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.rate-limit.idle-timeout:PT10M}")
+    public void purgeIdleBuckets() {
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE refilled_at < now() - make_interval(secs => ?)",
+                (double) idleTimeout.toSeconds());
+    }
+}
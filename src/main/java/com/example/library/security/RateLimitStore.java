@@ -0,0 +1,11 @@
+package com.example.library.security;
+
+public interface RateLimitStore {
+
+    /**
+     * Takes one token from the bucket named {@code key}, creating it full on first use.
+     *
+     * @return 0 when a token was taken, otherwise the milliseconds until the next one is available
+     */
+    long tryConsume(String key, BucketLimit limit);
+}
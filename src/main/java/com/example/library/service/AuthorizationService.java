@@ -4,14 +4,14 @@ import com.example.library.model.*;
 import com.example.library.repository.CopyRepository;
 import com.example.library.repository.LoanRepository;
 import com.example.library.repository.ReservationRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 @RequiredArgsConstructor
+@Observed(name = "library.authorization")
 public class AuthorizationService {
 
     private final UserService userService;
@@ -46,13 +46,9 @@ public class AuthorizationService {
         if (librarian.getRole() != UserRole.LIBRARIAN || librarian.getLibrary() == null) {
             return false;
         }
-        List<Reservation> reservations = reservationRepository.findAllByUserId(userId).stream()
-                .filter(reservation -> reservation.getCopy().getLibrary().getId().equals(librarian.getLibrary().getId()))
-                .toList();
-        List<Loan> loans = loanRepository.findByUserId(userId).stream()
-                .filter(loan -> loan.getCopy().getLibrary().getId().equals(librarian.getLibrary().getId()))
-                .toList();
-        return !reservations.isEmpty() || !loans.isEmpty();
+        Long libraryId = librarian.getLibrary().getId();
+        return loanRepository.existsByUserIdAndCopyLibraryId(userId, libraryId)
+                || reservationRepository.existsByUserIdAndCopyLibraryId(userId, libraryId);
     }
 
 
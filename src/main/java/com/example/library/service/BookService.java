@@ -1,17 +1,22 @@
 package com.example.library.service;
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
+import com.example.library.component.OpenLibraryClient;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
 import com.example.library.specification.BookSpecification;
 import com.example.library.model.Book;
 import com.example.library.repository.BookRepository;
 import com.example.library.repository.CopyRepository;
+import com.example.library.search.BookSearchEngine;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 
@@ -20,7 +25,10 @@ import java.util.List;
 public class BookService {
     private final BookRepository bookRepository;
     private final CopyRepository copyRepository;
-    private final RestTemplate restTemplate;
+    private final OpenLibraryClient openLibraryClient;
+    private final BookSearchEngine bookSearchEngine;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ObjectMapper objectMapper;
 
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
@@ -31,16 +39,15 @@ public class BookService {
     }
 
     public void addBookWithIsbn(String isbn) {
-        String url = "http://openlibrary.org/api/volumes/brief/isbn/" + isbn + ".json";
-        String jsonResponse = restTemplate.getForObject(url, String.class);
+        String jsonResponse = openLibraryClient.fetchBookByIsbn(isbn);
         Book book = mapToBook(jsonResponse, isbn);
-        bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        bookSearchEngine.onBookSaved(saved);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Book.class, saved.getId()));
     }
 
     private Book mapToBook(String jsonResponse, String isbn) {
         try {
-
-            ObjectMapper objectMapper = new ObjectMapper();
             JsonNode rootNode = objectMapper.readTree(jsonResponse);
 
             JsonNode bookData = rootNode.path("records").elements().next();
@@ -72,6 +79,10 @@ public class BookService {
         return bookRepository.findAll(specification);
     }
 
+    public Page<Book> searchBooks(String query, Pageable pageable) {
+        return bookSearchEngine.search(query, pageable);
+    }
+
     public void deleteBook(Long bookId) {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new NotFoundException("Book with ID " + bookId + " does not exist"));
@@ -81,5 +92,7 @@ public class BookService {
         }
 
         bookRepository.delete(book);
+        bookSearchEngine.onBookDeleted(bookId);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Book.class, bookId));
     }
 }
\ No newline at end of file
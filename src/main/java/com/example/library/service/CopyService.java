@@ -1,10 +1,12 @@
 package com.example.library.service;
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
 import com.example.library.model.*;
 import com.example.library.repository.*;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,15 +24,19 @@ public class CopyService {
     private final BookRepository bookRepository;
     private final LoanRepository loanRepository;
     private final ReservationRepository reservationRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
+    @Transactional(readOnly = true)
     public List<Copy> getAllCopies() {
         return copyRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Copy getCopyById(Long copyId) {
         return copyRepository.findById(copyId).orElseThrow(() -> new NotFoundException("Copy with ID " + copyId + " does not exist"));
     }
 
+    @Transactional(readOnly = true)
     public List<Copy> getCopiesByLibrary(Long libraryId) {
         if (!libraryRepository.existsById(libraryId)) {
             throw new NotFoundException("Library with ID " + libraryId + " does not exist");
@@ -38,10 +44,12 @@ public class CopyService {
         return copyRepository.findByLibraryId(libraryId);
     }
 
+    @Transactional(readOnly = true)
     public List<Copy> getAvailableCopiesByLibrary(Long libraryId) {
         return copyRepository.findByLibraryIdAndStatus(libraryId, CopyStatus.AVAILABLE);
     }
 
+    @Transactional(readOnly = true)
     public List<Copy> getCopiesByBook(Long bookId) {
         if (!bookRepository.existsById(bookId)) {
             throw new NotFoundException("Book with ID " + bookId + " does not exist");
@@ -49,14 +57,17 @@ public class CopyService {
         return copyRepository.findByBookId(bookId);
     }
 
+    @Transactional(readOnly = true)
     public List<Copy> getAvailableCopiesByBook(Long bookId) {
         return copyRepository.findByBookIdAndStatus(bookId, CopyStatus.AVAILABLE);
     }
 
+    @Transactional(readOnly = true)
     public List<Copy> getAvailableCopiesOfBookByLibrary(Long bookId, Long LibraryId) {
         return copyRepository.findByBookIdAndLibraryId(bookId,LibraryId);
     }
 
+    @Transactional(readOnly = true)
     public List<Copy> getAvailableCopies() {
         return copyRepository.findByStatus(CopyStatus.AVAILABLE);
     }
@@ -81,6 +92,7 @@ public class CopyService {
                 .status(CopyStatus.AVAILABLE)
                 .build();
         copyRepository.save(copy);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, copy.getId()));
     }
 
     public void updateCopyStatus(Long copyId, CopyStatus status) {
@@ -93,6 +105,7 @@ public class CopyService {
 
         copy.setStatus(status);
         copyRepository.save(copy);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, copyId));
     }
 
     public void deleteCopy(Long copyId) {
@@ -106,6 +119,7 @@ public class CopyService {
             } else {
                 copyRepository.delete(copy);
             }
+            cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, copyId));
         } else {
             throw new BadRequestException("Cannot delete copy – it is currently borrowed, reserved, or already removed.");
         }
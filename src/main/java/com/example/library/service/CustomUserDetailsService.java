@@ -1,20 +1,26 @@
 package com.example.library.service;
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.model.User;
 import com.example.library.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
+    // Read-write on purpose: credentials are always checked on the primary, never on a lagging replica.
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmailAndActiveTrue(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
@@ -25,4 +31,17 @@ public class CustomUserDetailsService implements UserDetailsService {
                 Collections.singleton(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
         );
     }
-}
\ No newline at end of file
+
+    // called after a successful login whose stored hash is unprefixed or weaker than the configured BCrypt cost
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.findByEmailAndActiveTrue(userDetails.getUsername()).ifPresent(user -> {
+            user.setPassword(newPassword);
+            cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(User.class, user.getId()));
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.library.service;
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.dto.LibraryDTO;
+import com.example.library.dto.LibrarySummaryDTO;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
 import com.example.library.model.*;
@@ -8,6 +11,8 @@ import com.example.library.repository.*;
 import com.example.library.specification.LibrarySpecification;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +31,7 @@ public class LibraryService {
     private final ReservationRepository reservationRepository;
     private final UserService userService;
     private final Clock clock;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     public List<Library> getAllLibraries() {
         return libraryRepository.findAll();
@@ -50,7 +56,7 @@ public class LibraryService {
     }
 
 
-    public List<Library> searchLibraries(String name, String address) {
+    public Page<LibrarySummaryDTO> searchLibraries(String name, String address, Pageable pageable) {
         Specification<Library> spec = Specification.where(null);
 
         if (name != null && !name.isBlank()) {
@@ -61,7 +67,7 @@ public class LibraryService {
             spec = spec.and(LibrarySpecification.hasAddressLike(address));
         }
 
-        return libraryRepository.findAll(spec);
+        return libraryRepository.findSummaries(spec, pageable);
     }
 
     public void addLibrary(LibraryDTO library) {
@@ -73,6 +79,7 @@ public class LibraryService {
         newLibrary.setName(library.name());
         newLibrary.setAddress(library.address());
         libraryRepository.save(newLibrary);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Library.class, newLibrary.getId()));
     }
 
     public void endLoan(Long copyId) {
@@ -102,11 +109,13 @@ public class LibraryService {
             if (loanRepository.existsLoanByCopy_Id(copy.getId()) || reservationRepository.existsReservationByCopy_Id(copy.getId())) {
                 copy.setStatus(CopyStatus.REMOVED);
                 copyRepository.save(copy);
+                cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, copy.getId()));
                 endLoan(copy.getId());
                 endReservation(copy.getId());
                 hasActiveLoansOrReservations = true;
             } else {
                 copyRepository.delete(copy);
+                cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, copy.getId()));
             }
         }
 
@@ -115,14 +124,17 @@ public class LibraryService {
                     user.setRole(UserRole.USER);
                     user.setLibrary(null);
                     userRepository.save(user);
+                    cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(User.class, user.getId()));
                 });
 
         if (hasActiveLoansOrReservations) {
             library.setStatus(LibraryStatus.CLOSED);
             libraryRepository.save(library);
+            cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Library.class, libraryId));
             return false; // closed
         } else {
             libraryRepository.delete(library);
+            cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Library.class, libraryId));
             return true; // deleted
         }
     }
@@ -148,6 +160,7 @@ public class LibraryService {
             changedLibrary.setAddress(address);
         }
         libraryRepository.save(changedLibrary);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Library.class, libraryId));
     }
 
 }
\ No newline at end of file
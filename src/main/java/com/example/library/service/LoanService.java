@@ -1,54 +1,79 @@
 package com.example.library.service;
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.dto.LoanDTO;
 import com.example.library.exception.BadRequestException;
+import com.example.library.event.LoanCreatedEvent;
 import com.example.library.exception.NotFoundException;
+import com.example.library.metrics.LibraryMetrics;
+import com.example.library.metrics.LibraryMetrics.Job;
+import com.example.library.metrics.LibraryMetrics.Operation;
 import com.example.library.model.*;
 import com.example.library.repository.CopyRepository;
 import com.example.library.repository.LoanRepository;
 import com.example.library.repository.ReservationRepository;
 import com.example.library.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Clock;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class LoanService {
 
+    // thrown on every attempt to borrow a taken copy or return twice; stackless, so one instance will do
+    private static final BadRequestException COPY_UNAVAILABLE = new BadRequestException("This copy isn't available");
+    private static final BadRequestException LOAN_ALREADY_RETURNED =
+            new BadRequestException("This book has already been returned or loan doesn't exist");
+    private static final NotFoundException LOAN_NOT_FOUND = new NotFoundException("This loan doesn't exist");
+
     private final LoanRepository loanRepository;
     private final UserRepository userRepository;
     private final CopyRepository copyRepository;
     private final ReservationRepository reservationRepository;
     private final NotificationService notificationService;
     private final Clock clock;
-
-
-    public List<LoanDTO> getAllLoans() {
-        return loanRepository.findAll().stream()
-                .map(loan -> new LoanDTO(
-                        loan.getId(),
-                        loan.getUser().getId(),
-                        loan.getUser().getEmail(),
-                        loan.getCopy().getId(),
-                        loan.getCopy().getBook().getTitle(),
-                        loan.getCopy().getLibrary().getId(),
-                        loan.getCopy().getLibrary().getName(),
-                        loan.getStartDate(),
-                        loan.getEndDate(),
-                        loan.getReturnDate()
-                ))
-                .toList();
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LibraryMetrics metrics;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${app.loans.stream-page-size:500}")
+    private int streamPageSize;
+
+    /**
+     * Hands every loan to {@code consumer} page by page, without first holding the whole list in memory.
+     * Each page is read as DTOs in its own short read-only transaction, so no connection is held while the
+     * caller writes a page out to a slow client.
+     */
+    public void streamAllLoans(Consumer<LoanDTO> consumer) {
+        long afterId = 0;
+        List<LoanDTO> page;
+        do {
+            page = loanRepository.findDtoPageAfter(afterId, PageRequest.ofSize(streamPageSize));
+            page.forEach(consumer);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == streamPageSize);
     }
 
+    @Transactional(readOnly = true)
     public List<LoanDTO> getMyLoans() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
@@ -57,21 +82,11 @@ public class LoanService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return loanRepository.findByUserId(currentUser.getId()).stream()
-                .map(loan -> new LoanDTO(
-                        loan.getId(),
-                        loan.getUser().getId(),
-                        loan.getUser().getEmail(),
-                        loan.getCopy().getId(),
-                        loan.getCopy().getBook().getTitle(),
-                        loan.getCopy().getLibrary().getId(),
-                        loan.getCopy().getLibrary().getName(),
-                        loan.getStartDate(),
-                        loan.getEndDate(),
-                        loan.getReturnDate()
-                ))
+                .map(LoanService::toDto)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<LoanDTO> getMyActiveLoans() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
@@ -80,21 +95,11 @@ public class LoanService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return loanRepository.findByUserIdAndReturnDateIsNull(currentUser.getId()).stream()
-                .map(loan -> new LoanDTO(
-                        loan.getId(),
-                        loan.getUser().getId(),
-                        loan.getUser().getEmail(),
-                        loan.getCopy().getId(),
-                        loan.getCopy().getBook().getTitle(),
-                        loan.getCopy().getLibrary().getId(),
-                        loan.getCopy().getLibrary().getName(),
-                        loan.getStartDate(),
-                        loan.getEndDate(),
-                        loan.getReturnDate()
-                ))
+                .map(LoanService::toDto)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<LoanDTO> getAllUserLoan(Long userId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
@@ -102,25 +107,28 @@ public class LoanService {
         User currentUser = userRepository.findByEmailAndActiveTrue(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         return loanRepository.findByUserId(userId).stream()
-                .map(loan -> new LoanDTO(
-                        loan.getId(),
-                        loan.getUser().getId(),
-                        loan.getUser().getEmail(),
-                        loan.getCopy().getId(),
-                        loan.getCopy().getBook().getTitle(),
-                        loan.getCopy().getLibrary().getId(),
-                        loan.getCopy().getLibrary().getName(),
-                        loan.getStartDate(),
-                        loan.getEndDate(),
-                        loan.getReturnDate()
-                ))
+                .map(LoanService::toDto)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public LoanDTO getLoanById(Long loanId) {
         Loan loan = loanRepository.findById(loanId)
                 .orElseThrow(() -> new NotFoundException("Loan with ID " + loanId + " does not exist"));
 
+        return toDto(loan);
+    }
+
+    @Transactional(readOnly = true)
+    public List<LoanDTO> getLoansByLibrary(Long libraryId) {
+        List<Loan> loans = loanRepository.findByCopy_Library_Id(libraryId);
+        return loans.stream()
+                .map(LoanService::toDto)
+                .toList();
+    }
+
+
+    public static LoanDTO toDto(Loan loan) {
         return new LoanDTO(
                 loan.getId(),
                 loan.getUser().getId(),
@@ -135,88 +143,81 @@ public class LoanService {
         );
     }
 
-    public List<LoanDTO> getLoansByLibrary(Long libraryId) {
-        List<Loan> loans = loanRepository.findByCopy_Library_Id(libraryId);
-        return loans.stream()
-                .map(loan -> new LoanDTO(
-                        loan.getId(),
-                        loan.getUser().getId(),
-                        loan.getUser().getEmail(),
-                        loan.getCopy().getId(),
-                        loan.getCopy().getBook().getTitle(),
-                        loan.getCopy().getLibrary().getId(),
-                        loan.getCopy().getLibrary().getName(),
-                        loan.getStartDate(),
-                        loan.getEndDate(),
-                        loan.getReturnDate()
-                ))
-                .toList();
+    /**
+     * One short transaction: the lookups run on its connection, and the write is guarded by a
+     * conditional update on the copy status, so of two concurrent borrows of one copy only one succeeds.
+     * Mail and metrics are published as {@link LoanCreatedEvent} and handled after commit.
+     */
+    @Observed(name = "library.loans.borrow", contextualName = "borrow book")
+    public Long borrowBook(Long userId, Long copyId) {
+        return metrics.operation(Operation.BORROW, () -> transactionTemplate.execute(status -> borrow(userId, copyId)));
     }
 
-
-    public void borrowBook(Long userId, Long copyId) {
+    private Long borrow(Long userId, Long copyId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User with ID " + userId + " does not exist"));
-
         if (!user.isActive()) {
             throw new BadRequestException("User is not active.");
         }
-
         Copy copy = copyRepository.findById(copyId)
                 .orElseThrow(() -> new NotFoundException("Copy with ID " + copyId + " does not exist"));
-
         boolean hasReservation = reservationRepository.existsReservationByCopy_IdAndUser_IdAndStatus(copyId, userId, ReservationStatus.WAITING);
 
         if (copy.getStatus() != CopyStatus.AVAILABLE && !hasReservation) {
-            throw new BadRequestException("This copy isn't available");
+            throw COPY_UNAVAILABLE;
+        }
+        if (copyRepository.markBorrowed(copyId, hasReservation) == 0) {
+            throw COPY_UNAVAILABLE;
         }
-
         copy.setStatus(CopyStatus.BORROWED);
-        copyRepository.save(copy);
 
-        Loan loan = Loan.builder()
+        Loan loan = loanRepository.save(Loan.builder()
                 .user(user)
                 .copy(copy)
                 .startDate(LocalDate.now(clock))
                 .endDate(LocalDate.now(clock).plusWeeks(2))
-                .build();
-        loanRepository.save(loan);
-
-        reservationRepository.findByCopy_IdAndStatus(copyId, ReservationStatus.WAITING)
-                .ifPresent(reservation -> {
-                    reservation.setStatus(ReservationStatus.REALIZED);
-                    reservationRepository.save(reservation);
-                });
+                .build());
 
-        notificationService.sendLoanSuccess(loan.getUser().getEmail(), loan);
+        reservationRepository.realizeWaitingReservation(copyId);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, copyId));
+        eventPublisher.publishEvent(new LoanCreatedEvent(loan));
+        return loan.getId();
     }
 
     @Transactional
     public void returnBook(Long loanId) {
-        Loan loan = loanRepository.findByIdAndReturnDateIsNull(loanId)
-                .orElseThrow(() -> new BadRequestException("This book has already been returned or loan doesn't exist"));
-
-        loan.setReturnDate(LocalDate.now(clock));
-        loan.getCopy().setStatus(CopyStatus.AVAILABLE);
+        metrics.operation(Operation.RETURN, () -> {
+            Loan loan = loanRepository.findByIdAndReturnDateIsNull(loanId)
+                    .orElseThrow(() -> LOAN_ALREADY_RETURNED);
+
+            loan.setReturnDate(LocalDate.now(clock));
+            loan.getCopy().setStatus(CopyStatus.AVAILABLE);
+            cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, loan.getCopy().getId()));
+        });
     }
 
     public void extendLoan(LocalDate date, Long loanId) {
-        Loan loan = loanRepository.findByIdAndReturnDateIsNull(loanId)
-                .orElseThrow(() -> new NotFoundException("This loan doesn't exist"));
+        metrics.operation(Operation.EXTEND, () -> {
+            Loan loan = loanRepository.findByIdAndReturnDateIsNull(loanId)
+                    .orElseThrow(() -> LOAN_NOT_FOUND);
 
-        if (date.isBefore(loan.getEndDate())) {
-            throw new BadRequestException("The new date must be after endDate");
-        }
+            if (date.isBefore(loan.getEndDate())) {
+                throw new BadRequestException("The new date must be after endDate");
+            }
 
-        loan.setEndDate(date);
-        loanRepository.save(loan);
+            loan.setEndDate(date);
+            loanRepository.save(loan);
+        });
     }
 
     @Scheduled(cron = "0 */5 * * * *")
     public void checkLoans() {
-        List<Loan> overdueLoans = loanRepository.findByEndDateBeforeAndReturnDateIsNull(LocalDate.now(clock));
-        for (Loan loan : overdueLoans) {
-            notificationService.sendOverdueNotification(loan.getUser().getEmail(), loan);
-        }
+        metrics.job(Job.CHECK_LOANS, () -> {
+            List<Loan> overdueLoans = loanRepository.findByEndDateBeforeAndReturnDateIsNull(LocalDate.now(clock));
+            for (Loan loan : overdueLoans) {
+                notificationService.sendOverdueNotification(loan.getUser().getEmail(), loan);
+            }
+            return overdueLoans.size();
+        });
     }
 }
\ No newline at end of file
@@ -1,89 +1,169 @@
 package com.example.library.service;
 
+import com.example.library.exception.ErrorReporter;
+import com.example.library.metrics.LibraryMetrics;
+import com.example.library.metrics.LibraryMetrics.Mail;
 import com.example.library.model.Loan;
 import com.example.library.model.Reservation;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.stereotype.Service;
 import org.springframework.mail.javamail.JavaMailSender;
 
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
     private final JavaMailSender mailSender;
+    private final LibraryMetrics metrics;
+    private final ObservationRegistry observationRegistry;
+    private final ErrorReporter errorReporter;
 
-    public void sendOverdueNotification(String toEmail, Loan loan) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(toEmail);
-            message.setSubject("Overdue Book Return Notification");
-            message.setText("Dear User,\n\n" +
-                    "This is a reminder that the return date for the book titled '" + loan.getCopy().getBook().getTitle() + "' has passed.\n" +
-                    "Please return the book as soon as possible.\n\n" +
-                    "Best regards,\n" + loan.getCopy().getLibrary().getName());
-            mailSender.send(message);
-        } catch (MailException e) {
-            e.printStackTrace();
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.mail.smtp-threads:4}")
+    private int smtpThreads;
+
+    // JavaMail's SMTP transport synchronizes around socket I/O, which pins the carrier of a virtual thread.
+    // With virtual threads the SMTP exchange runs on one of smtp-threads platform threads instead and the
+    // calling thread just waits for it; on platform threads the caller sends the mail itself.
+    private ExecutorService mailExecutor;
+
+    @PostConstruct
+    void startMailExecutor() {
+        if (virtualThreads) {
+            mailExecutor = Executors.newFixedThreadPool(smtpThreads, Thread.ofPlatform().name("mail-", 0).factory());
         }
     }
 
+    public void sendOverdueNotification(String toEmail, Loan loan) {
+        deliver(Mail.OVERDUE, overdueMessage(toEmail, loan));
+    }
+
     public void sendLoanSuccess(String toEmail, Loan loan) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(toEmail);
-            message.setSubject("Book Loan Confirmation");
-            message.setText("Dear User,\n\n" +
-                    "You have successfully borrowed the book titled '" + loan.getCopy().getBook().getTitle() + "'.\n" +
-                    "The return due date for this book is: " + loan.getFormattedEndDate()  + ".\n\n" +
-                    "Best regards,\n" + loan.getCopy().getLibrary().getName());
-            mailSender.send(message);
-        } catch (MailException e) {
-            e.printStackTrace();
-        }
+        deliver(Mail.LOAN_SUCCESS, loanSuccessMessage(toEmail, loan));
     }
 
     public void sendOneDayLeftNotification(String toEmail, Reservation reservation) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(toEmail);
-            message.setSubject(" Reminder: 1 Day Left to Pick Up Your Reserved Book");
-            message.setText("Dear User,\n\n" +
-                    "This is a reminder that you have 1 day left to pick up the reserved book titled '" + reservation.getCopy().getBook().getTitle() + "'.\n" +
-                    "Best regards,\n" + reservation.getCopy().getLibrary().getName());
-            mailSender.send(message);
-        } catch (MailException e) {
-            e.printStackTrace();
-        }
+        deliver(Mail.ONE_DAY_LEFT, oneDayLeftMessage(toEmail, reservation));
     }
 
     public void sendCancelReservationNotification(String toEmail, Reservation reservation) {
+        deliver(Mail.RESERVATION_CANCELLED, cancelReservationMessage(toEmail, reservation));
+    }
+
+    public void sendAcceptedReservationNotification(String toEmail, Reservation reservation) {
+        deliver(Mail.RESERVATION_ACCEPTED, acceptedReservationMessage(toEmail, reservation));
+    }
+
+    public static SimpleMailMessage overdueMessage(String toEmail, Loan loan) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(toEmail);
+        message.setSubject("Overdue Book Return Notification");
+        message.setText("Dear User,\n\n" +
+                "This is a reminder that the return date for the book titled '" + loan.getCopy().getBook().getTitle() + "' has passed.\n" +
+                "Please return the book as soon as possible.\n\n" +
+                "Best regards,\n" + loan.getCopy().getLibrary().getName());
+        return message;
+    }
+
+    public static SimpleMailMessage loanSuccessMessage(String toEmail, Loan loan) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(toEmail);
+        message.setSubject("Book Loan Confirmation");
+        message.setText("Dear User,\n\n" +
+                "You have successfully borrowed the book titled '" + loan.getCopy().getBook().getTitle() + "'.\n" +
+                "The return due date for this book is: " + loan.getFormattedEndDate()  + ".\n\n" +
+                "Best regards,\n" + loan.getCopy().getLibrary().getName());
+        return message;
+    }
+
+    public static SimpleMailMessage oneDayLeftMessage(String toEmail, Reservation reservation) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(toEmail);
+        message.setSubject(" Reminder: 1 Day Left to Pick Up Your Reserved Book");
+        message.setText("Dear User,\n\n" +
+                "This is a reminder that you have 1 day left to pick up the reserved book titled '" + reservation.getCopy().getBook().getTitle() + "'.\n" +
+                "Best regards,\n" + reservation.getCopy().getLibrary().getName());
+        return message;
+    }
+
+    public static SimpleMailMessage cancelReservationMessage(String toEmail, Reservation reservation) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(toEmail);
+        message.setSubject("Reservation Cancellation Notice");
+        message.setText("Dear User,\n\n" +
+                "Your reservation for the book titled '" + reservation.getCopy().getBook().getTitle() + "' has been cancelled.\n" +
+                "Best regards,\n" + reservation.getCopy().getLibrary().getName());
+        return message;
+    }
+
+    public static SimpleMailMessage acceptedReservationMessage(String toEmail, Reservation reservation) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(toEmail);
+        message.setSubject("Reservation Confirmed");
+        message.setText("Dear User,\n\n" +
+                "Your reservation for the book titled '" + reservation.getCopy().getBook().getTitle() + "' has been successfully confirmed.\n" +
+                "Please note that you have 2 days to pick up the book.\n" +
+                "You can collect it until: " + reservation.getFormattedExpirationDate()  + ".\n\n" +
+                "Best regards,\n" + reservation.getCopy().getLibrary().getName());
+        return message;
+    }
+
+    // a failed mail must not fail the loan or reservation that triggered it; during an SMTP outage the
+    // reporter keeps the log to a few lines per minute and counts the rest
+    private void deliver(Mail type, SimpleMailMessage message) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(toEmail);
-            message.setSubject("Reservation Cancellation Notice");
-            message.setText("Dear User,\n\n" +
-                    "Your reservation for the book titled '" + reservation.getCopy().getBook().getTitle() + "' has been cancelled.\n" +
-                    "Best regards,\n" + reservation.getCopy().getLibrary().getName());
-            mailSender.send(message);
+            metrics.mail(type, () -> send(message));
         } catch (MailException e) {
-            e.printStackTrace();
+            String name = type.name().toLowerCase(Locale.ROOT);
+            errorReporter.error("mail." + name, "Sending " + name + " mail failed", e);
         }
     }
 
-    public void sendAcceptedReservationNotification(String toEmail, Reservation reservation) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(toEmail);
-            message.setSubject("Reservation Confirmed");
-            message.setText("Dear User,\n\n" +
-                    "Your reservation for the book titled '" + reservation.getCopy().getBook().getTitle() + "' has been successfully confirmed.\n" +
-                    "Please note that you have 2 days to pick up the book.\n" +
-                    "You can collect it until: " + reservation.getFormattedExpirationDate()  + ".\n\n" +
-                    "Best regards,\n" + reservation.getCopy().getLibrary().getName());
+    private void send(SimpleMailMessage message) {
+        Observation.createNotStarted("library.mail.smtp", observationRegistry)
+                .contextualName("smtp send")
+                .observe(() -> sendAndWait(message));
+    }
+
+    private void sendAndWait(SimpleMailMessage message) {
+        if (mailExecutor == null) {
             mailSender.send(message);
-        } catch (MailException e) {
-            e.printStackTrace();
+            return;
+        }
+        Future<?> sending = mailExecutor.submit(() -> mailSender.send(message));
+        try {
+            sending.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            sending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while sending mail", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (mailExecutor != null) {
+            mailExecutor.shutdown();
         }
     }
 }
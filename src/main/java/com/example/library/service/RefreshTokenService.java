@@ -1,12 +1,16 @@
 package com.example.library.service;
 
+import com.example.library.metrics.LibraryMetrics;
+import com.example.library.metrics.LibraryMetrics.Job;
 import com.example.library.model.RefreshToken;
 import com.example.library.model.User;
 import com.example.library.repository.RefreshTokenRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
@@ -17,34 +21,57 @@ import java.util.UUID;
 public class RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final Clock clock;
+    private final LibraryMetrics metrics;
 
-    @Transactional
-    public RefreshToken createRefreshToken(User user) {
-        refreshTokenRepository.deleteByUserId(user.getId());
-
-        Instant now = Instant.now();
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setUser(user);
-        refreshToken.setCreatedAt(now);
-        refreshToken.setExpiresAt(now.plus(7, ChronoUnit.DAYS));
+    @Value("${app.refresh-tokens.purge-batch-size:1000}")
+    private int purgeBatchSize;
 
-        return refreshTokenRepository.save(refreshToken);
+    public RefreshToken createRefreshToken(User user) {
+        Instant now = clock.instant();
+        RefreshToken refreshToken = new RefreshToken(UUID.randomUUID().toString(), user, now, now.plus(7, ChronoUnit.DAYS));
+        refreshTokenRepository.rotate(user.getId(), refreshToken.getTokenHash(), refreshToken.getCreatedAt(), refreshToken.getExpiresAt());
+        return refreshToken;
     }
 
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        if (token == null) {
+            return Optional.empty();
+        }
+        return refreshTokenRepository.findById(RefreshToken.hash(token))
+                .map(refreshToken -> {
+                    refreshToken.setToken(token);
+                    return refreshToken;
+                });
     }
 
+    // expired rows are left to purgeExpiredTokens
     public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiresAt().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(token);
+        if (token.getExpiresAt().isBefore(clock.instant())) {
             throw new RuntimeException("Refresh token expired");
         }
         return token;
     }
 
     public void deleteToken(RefreshToken token) {
-        refreshTokenRepository.delete(token);
+        refreshTokenRepository.deleteByTokenHash(token.getTokenHash());
+    }
+
+    /**
+     * Deletes expired tokens in chunks of {@code purge-batch-size}, each in its own short transaction, so a
+     * large backlog never holds many row locks or one long transaction.
+     */
+    @Scheduled(fixedDelayString = "${app.refresh-tokens.purge-interval:PT1H}")
+    public void purgeExpiredTokens() {
+        metrics.job(Job.PURGE_REFRESH_TOKENS, () -> {
+            Instant now = clock.instant();
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = refreshTokenRepository.deleteExpired(now, purgeBatchSize);
+                purged += deleted;
+            } while (deleted == purgeBatchSize);
+            return purged;
+        });
     }
 }
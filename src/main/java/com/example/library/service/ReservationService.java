@@ -1,8 +1,13 @@
 package com.example.library.service;
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.dto.ReservationDTO;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
+import com.example.library.metrics.LibraryMetrics;
+import com.example.library.metrics.LibraryMetrics.Job;
+import com.example.library.metrics.LibraryMetrics.Operation;
 import com.example.library.model.*;
 import com.example.library.repository.CopyRepository;
 import com.example.library.repository.ReservationRepository;
@@ -13,6 +18,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.LocalDate;
@@ -21,12 +27,17 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class ReservationService {
+    private static final BadRequestException COPY_NOT_RESERVABLE = new BadRequestException("Copy is not available for reservation!");
+
     private final ReservationRepository reservationRepository;
     private final CopyRepository copyRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final Clock clock;
+    private final LibraryMetrics metrics;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
+    @Transactional(readOnly = true)
     public List<ReservationDTO> getMyReservations() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
@@ -35,21 +46,11 @@ public class ReservationService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return reservationRepository.findAllByUserId(currentUser.getId()).stream()
-                .map(reservation -> new ReservationDTO(
-                        reservation.getId(),
-                        reservation.getUser().getId(),
-                        reservation.getUser().getEmail(),
-                        reservation.getCopy().getId(),
-                        reservation.getCopy().getBook().getTitle(),
-                        reservation.getCopy().getLibrary().getId(),
-                        reservation.getCopy().getLibrary().getName(),
-                        reservation.getCreatedAt(),
-                        reservation.getExpirationDate(),
-                        reservation.getStatus()
-                ))
+                .map(ReservationService::toDto)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDTO> getMyActiveReservations() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
@@ -58,40 +59,20 @@ public class ReservationService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return reservationRepository.findAllByUserIdAndStatus(currentUser.getId(),ReservationStatus.WAITING ).stream()
-                .map(reservation -> new ReservationDTO(
-                        reservation.getId(),
-                        reservation.getUser().getId(),
-                        reservation.getUser().getEmail(),
-                        reservation.getCopy().getId(),
-                        reservation.getCopy().getBook().getTitle(),
-                        reservation.getCopy().getLibrary().getId(),
-                        reservation.getCopy().getLibrary().getName(),
-                        reservation.getCreatedAt(),
-                        reservation.getExpirationDate(),
-                        reservation.getStatus()
-                ))
+                .map(ReservationService::toDto)
                 .toList();
     }
 
 
 
+    @Transactional(readOnly = true)
     public List<ReservationDTO> getAllReservations() {
         return reservationRepository.findAll().stream()
-                .map(reservation -> new ReservationDTO(
-                        reservation.getId(),
-                        reservation.getUser().getId(),
-                        reservation.getUser().getEmail(),
-                        reservation.getCopy().getId(),
-                        reservation.getCopy().getBook().getTitle(),
-                        reservation.getCopy().getLibrary().getId(),
-                        reservation.getCopy().getLibrary().getName(),
-                        reservation.getCreatedAt(),
-                        reservation.getExpirationDate(),
-                        reservation.getStatus()
-                ))
+                .map(ReservationService::toDto)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDTO> getUserAllReservations(Long userId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
@@ -100,40 +81,23 @@ public class ReservationService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return reservationRepository.findAllByUserId(userId).stream()
-                .map(reservation -> new ReservationDTO(
-                        reservation.getId(),
-                        reservation.getUser().getId(),
-                        reservation.getUser().getEmail(),
-                        reservation.getCopy().getId(),
-                        reservation.getCopy().getBook().getTitle(),
-                        reservation.getCopy().getLibrary().getId(),
-                        reservation.getCopy().getLibrary().getName(),
-                        reservation.getCreatedAt(),
-                        reservation.getExpirationDate(),
-                        reservation.getStatus()
-                ))
+                .map(ReservationService::toDto)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public ReservationDTO getReservationById(Long reservationId) {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new NotFoundException("Reservation with ID " + reservationId + " does not exist"));
 
-        return new ReservationDTO(
-                reservation.getId(),
-                reservation.getUser().getId(),
-                reservation.getUser().getEmail(),
-                reservation.getCopy().getId(),
-                reservation.getCopy().getBook().getTitle(),
-                reservation.getCopy().getLibrary().getId(),
-                reservation.getCopy().getLibrary().getName(),
-                reservation.getCreatedAt(),
-                reservation.getExpirationDate(),
-                reservation.getStatus()
-        );
+        return toDto(reservation);
     }
 
     public void reserveCopy(Long copyId) {
+        metrics.operation(Operation.RESERVE, () -> reserve(copyId));
+    }
+
+    private void reserve(Long copyId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
 
@@ -143,11 +107,12 @@ public class ReservationService {
                 .orElseThrow(() -> new NotFoundException("Copy not found!"));
 
         if (copy.getStatus() != CopyStatus.AVAILABLE) {
-            throw new BadRequestException("Copy is not available for reservation!");
+            throw COPY_NOT_RESERVABLE;
         }
 
         copy.setStatus(CopyStatus.RESERVED);
         copyRepository.save(copy);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, copyId));
 
         Reservation reservation = Reservation.builder()
                 .user(user)
@@ -162,6 +127,10 @@ public class ReservationService {
     }
 
     public void cancelReservation(Long reservationId) {
+        metrics.operation(Operation.CANCEL, () -> cancel(reservationId));
+    }
+
+    private void cancel(Long reservationId) {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new NotFoundException("Reservation with ID " + reservationId + " does not exist"));
 
@@ -175,45 +144,55 @@ public class ReservationService {
         Copy copy = reservation.getCopy();
         copy.setStatus(CopyStatus.AVAILABLE);
         copyRepository.save(copy);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, copy.getId()));
 
         notificationService.sendCancelReservationNotification(reservation.getUser().getEmail(), reservation);
     }
 
     @Scheduled(cron = "0 */5 * * * *")
     public void checkReservations() {
-        List<Reservation> expiredReservations = reservationRepository.findAllByExpirationDateBeforeAndStatus(LocalDate.now(clock), ReservationStatus.WAITING);
-
-        for (Reservation reservation : expiredReservations) {
-            reservation.setStatus(ReservationStatus.EXPIRED);
-            reservationRepository.save(reservation);
-            notificationService.sendCancelReservationNotification(reservation.getUser().getEmail(), reservation);
-
-            Copy copy = reservation.getCopy();
-            copy.setStatus(CopyStatus.AVAILABLE);
-            copyRepository.save(copy);
-        }
-
-        List<Reservation> reservationsWithOneDayLeft = reservationRepository.findByExpirationDate(LocalDate.now(clock).plusDays(1));
-        for (Reservation reservation : reservationsWithOneDayLeft) {
-            notificationService.sendOneDayLeftNotification(reservation.getUser().getEmail(), reservation);
-        }
+        metrics.job(Job.CHECK_RESERVATIONS, () -> {
+            List<Reservation> expiredReservations = reservationRepository.findAllByExpirationDateBeforeAndStatus(LocalDate.now(clock), ReservationStatus.WAITING);
+
+            for (Reservation reservation : expiredReservations) {
+                reservation.setStatus(ReservationStatus.EXPIRED);
+                reservationRepository.save(reservation);
+                notificationService.sendCancelReservationNotification(reservation.getUser().getEmail(), reservation);
+
+                Copy copy = reservation.getCopy();
+                copy.setStatus(CopyStatus.AVAILABLE);
+                copyRepository.save(copy);
+                cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(Copy.class, copy.getId()));
+            }
+
+            List<Reservation> reservationsWithOneDayLeft = reservationRepository.findByExpirationDate(LocalDate.now(clock).plusDays(1));
+            for (Reservation reservation : reservationsWithOneDayLeft) {
+                notificationService.sendOneDayLeftNotification(reservation.getUser().getEmail(), reservation);
+            }
+            return expiredReservations.size() + reservationsWithOneDayLeft.size();
+        });
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDTO> getReservationsByLibrary(Long libraryId) {
         List<Reservation> reservations = reservationRepository.findByCopyLibraryId(libraryId);
         return reservations.stream()
-                .map(reservation -> new ReservationDTO(
-                        reservation.getId(),
-                        reservation.getUser().getId(),
-                        reservation.getUser().getEmail(),
-                        reservation.getCopy().getId(),
-                        reservation.getCopy().getBook().getTitle(),
-                        reservation.getCopy().getLibrary().getId(),
-                        reservation.getCopy().getLibrary().getName(),
-                        reservation.getCreatedAt(),
-                        reservation.getExpirationDate(),
-                        reservation.getStatus()
-                ))
+                .map(ReservationService::toDto)
                 .toList();
     }
-}
\ No newline at end of file
+
+    public static ReservationDTO toDto(Reservation reservation) {
+        return new ReservationDTO(
+                reservation.getId(),
+                reservation.getUser().getId(),
+                reservation.getUser().getEmail(),
+                reservation.getCopy().getId(),
+                reservation.getCopy().getBook().getTitle(),
+                reservation.getCopy().getLibrary().getId(),
+                reservation.getCopy().getLibrary().getName(),
+                reservation.getCreatedAt(),
+                reservation.getExpirationDate(),
+                reservation.getStatus()
+        );
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.library.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Strong ETags built from the counters in {@code resource_versions}, which database triggers bump on
+ * every write to the underlying tables. Computing a tag never loads the resource itself.
+ *
+ * <p>{@link #readIfModified} reads the tag and the body in one read-only transaction. Both then come from the
+ * same database, so a lagging replica cannot hand out a new tag with an old body, which clients would keep
+ * getting 304 for.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceVersionService {
+
+    public static final String BOOKS = "books";
+    public static final String LIBRARIES = "libraries";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public static String copiesOfBook(Long bookId) {
+        return "copies:book:" + bookId;
+    }
+
+    /**
+     * Reads the tag of {@code resources} and hands it to {@code notModified}, typically
+     * {@code WebRequest::checkNotModified}. Only when that returns {@code false} is the body loaded, in the
+     * same read-only transaction. Empty when the client's copy is current.
+     */
+    @Transactional(readOnly = true)
+    public <T> Optional<T> readIfModified(Predicate<String> notModified, Supplier<T> body, String... resources) {
+        if (notModified.test(etag(resources))) {
+            return Optional.empty();
+        }
+        return Optional.of(body.get());
+    }
+
+    public String etag(String... resources) {
+        List<String> names = List.of(resources);
+        Map<String, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT resource, version FROM resource_versions WHERE resource IN (:resources)",
+                Map.of("resources", names),
+                resultSet -> {
+                    versions.put(resultSet.getString("resource"), resultSet.getLong("version"));
+                });
+        return names.stream()
+                .map(name -> String.valueOf(versions.getOrDefault(name, 0L)))
+                .collect(Collectors.joining("-", "\"v", "\""));
+    }
+}
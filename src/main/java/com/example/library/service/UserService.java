@@ -1,5 +1,7 @@
 package com.example.library.service;
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.model.ReservationStatus;
 import com.example.library.dto.UserInfoDTO;
 import com.example.library.dto.UserRegistrationDTO;
@@ -14,6 +16,8 @@ import com.example.library.repository.ReservationRepository;
 import com.example.library.repository.UserRepository;
 import com.example.library.specification.UserSpecification;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
@@ -21,11 +25,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,16 +43,21 @@ public class UserService {
     private final UserRepository userRepository;
     private final LibraryRepository libraryRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CacheInvalidationBus cacheInvalidationBus;
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    private static final BadRequestException EMAIL_TAKEN = new BadRequestException("Email already taken");
+    private static final NotFoundException USER_NOT_FOUND = new NotFoundException("User not found");
 
+    @Transactional(readOnly = true)
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
-        log.info("Aktualnie zalogowany użytkownik: {}", email);
+        log.debug("Aktualnie zalogowany użytkownik: {}", email);
         return userRepository.findByEmailAndActiveTrue(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
+    @Transactional(readOnly = true)
     public List<UserInfoDTO> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(user -> new UserInfoDTO(
@@ -62,6 +71,7 @@ public class UserService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<UserInfoDTO> getActiveUsers() {
         return userRepository.findAllByActiveTrue().stream()
                 .map(user -> new UserInfoDTO(
@@ -76,6 +86,7 @@ public class UserService {
     }
 
 
+    @Transactional(readOnly = true)
     public UserInfoDTO getUserById(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User with ID " + userId + " does not exist"));
@@ -90,35 +101,25 @@ public class UserService {
         );
     }
 
+    @Transactional(readOnly = true)
     public List<User> getUsersRelatedToLibrarianLibrary() {
         User librarian = getCurrentUser();
         if (librarian.getRole() != UserRole.LIBRARIAN || librarian.getLibrary() == null) {
             throw new AccessDeniedException("Only librarians with library assigned can access this");
         }
 
-        Long libraryId = librarian.getLibrary().getId();
-        List<User> allUsers = userRepository.findAll();
-
-        return allUsers.stream()
-                .filter(user -> {
-                    boolean hasReservation = reservationRepository.findAllByUserId(user.getId()).stream()
-                            .anyMatch(res -> res.getCopy().getLibrary().getId().equals(libraryId));
-
-                    boolean hasLoan = loanRepository.findByUserId(user.getId()).stream()
-                            .anyMatch(loan -> loan.getCopy().getLibrary().getId().equals(libraryId));
-
-                    return hasReservation || hasLoan;
-                })
-                .toList();
+        return userRepository.findRelatedToLibrary(librarian.getLibrary().getId());
     }
 
 
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         return userRepository.findByEmailAndActiveTrue(email)
                 .orElseThrow(() -> new NotFoundException("User with email " + email + " does not exist"));
     }
 
 
+    @Transactional(readOnly = true)
     public List<UserInfoDTO> getUsersByRole(UserRole role) {
 
         return userRepository.findByRoleAndActiveTrue(role).stream()
@@ -133,6 +134,7 @@ public class UserService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<UserInfoDTO> getLibrariansFromLibrary(Long libraryId) {
         if (!libraryRepository.existsById(libraryId)) {
             throw new NotFoundException("Library with ID " + libraryId + " does not exist");
@@ -151,7 +153,7 @@ public class UserService {
 
     public void addUser(UserRegistrationDTO user) {
         if (userRepository.findByEmailAndActiveTrue(user.email()).isPresent()) {
-            throw new BadRequestException("Email already taken");
+            throw EMAIL_TAKEN;
         }
 
         User newUser = new User();
@@ -167,8 +169,9 @@ public class UserService {
             newUser.setSurname(user.surname());
         }
 
-        System.out.println("Saving user: " + newUser);
         userRepository.save(newUser);
+        log.debug("Registered user {}", newUser.getId());
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(User.class, newUser.getId()));
     }
 
 
@@ -187,7 +190,7 @@ public class UserService {
         if (user.email() != null && !user.email().isBlank()) {
             Optional<User> existingUserWithEmail = userRepository.findByEmailAndActiveTrue(user.email());
             if (existingUserWithEmail.isPresent() && !existingUserWithEmail.get().getId().equals(userId)) {
-                throw new BadRequestException("Email already taken");
+                throw EMAIL_TAKEN;
             }
             newUser.setEmail(user.email());
         }
@@ -216,6 +219,7 @@ public class UserService {
         }
 
         userRepository.save(newUser);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(User.class, userId));
     }
 
 
@@ -249,11 +253,12 @@ public class UserService {
             user.setLibrary(library);
         }
         userRepository.save(user);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(User.class, userId));
     }
 
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found"));
+                .orElseThrow(() -> USER_NOT_FOUND);
 
         if (user.getRole() == UserRole.ADMIN) {
             long adminCount = userRepository.countByRoleAndActiveTrue(UserRole.ADMIN);
@@ -267,9 +272,11 @@ public class UserService {
         }
         user.setActive(false);
         userRepository.save(user);
+        cacheInvalidationBus.publishAfterCommit(CacheInvalidation.of(User.class, userId));
     }
 
-    public List<UserInfoDTO> searchUsers(String name, String email, UserRole role) {
+    @Transactional(readOnly = true)
+    public Page<UserInfoDTO> searchUsers(String name, String email, UserRole role, Pageable pageable) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String mail = authentication.getName();
 
@@ -290,28 +297,13 @@ public class UserService {
             spec = spec.and(UserSpecification.hasRole(role));
         }
 
-        List<User> users = userRepository.findAll(spec);
-
         if (currentUser.getRole() == UserRole.LIBRARIAN) {
-
             if (role == UserRole.LIBRARIAN || role == UserRole.ADMIN) {
                 Long libraryId = currentUser.getLibrary() != null ? currentUser.getLibrary().getId() : null;
-                users = users.stream()
-                        .filter(user -> user.getLibrary() != null &&
-                                user.getLibrary().getId().equals(libraryId))
-                        .collect(Collectors.toList());
+                spec = spec.and(UserSpecification.hasLibraryId(libraryId));
             }
         }
 
-        return users.stream()
-                .map(user -> new UserInfoDTO(
-                        user.getId(),
-                        user.getEmail(),
-                        user.getName(),
-                        user.getSurname(),
-                        user.getRole().name(),
-                        user.getLibrary() != null ? user.getLibrary().getId() : null
-                ))
-                .collect(Collectors.toList());
+        return userRepository.findUserInfos(spec, pageable);
     }
 }
\ No newline at end of file
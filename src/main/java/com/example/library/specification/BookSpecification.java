@@ -8,13 +8,13 @@ public class BookSpecification {
     public static Specification<Book> hasTitle(String title) {
         return (root, query, criteriaBuilder) ->
                 (title == null || title.isEmpty()) ? criteriaBuilder.conjunction() :
-                        criteriaBuilder.equal(root.get("title"), title);
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), LikePatterns.contains(title), LikePatterns.ESCAPE);
     }
 
     public static Specification<Book> hasAuthor(String author) {
         return (root, query, criteriaBuilder) ->
                 (author == null || author.isEmpty()) ? criteriaBuilder.conjunction() :
-                        criteriaBuilder.equal(root.get("author"), author);
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("author")), LikePatterns.contains(author), LikePatterns.ESCAPE);
     }
 
     public static Specification<Book> hasIsbn(String isbn) {
@@ -22,4 +22,13 @@ public class BookSpecification {
                 (isbn == null || isbn.isEmpty()) ? criteriaBuilder.conjunction() :
                         criteriaBuilder.equal(root.get("isbn"), isbn);
     }
+
+    public static Specification<Book> hasWordStartingWith(String token) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), LikePatterns.startsWith(token), LikePatterns.ESCAPE),
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), LikePatterns.wordStartsWith(token), LikePatterns.ESCAPE),
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("author")), LikePatterns.startsWith(token), LikePatterns.ESCAPE),
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("author")), LikePatterns.wordStartsWith(token), LikePatterns.ESCAPE)
+        );
+    }
 }
@@ -5,9 +5,9 @@ import org.springframework.data.jpa.domain.Specification;
 
 public class LibrarySpecification {
     public static Specification<Library> hasNameLike(String name) {
-        return (root, query, builder) -> builder.like(builder.lower(root.get("name")), "%" + name.toLowerCase() + "%");
+        return (root, query, builder) -> builder.like(builder.lower(root.get("name")), LikePatterns.contains(name), LikePatterns.ESCAPE);
     }
     public static Specification<Library> hasAddressLike(String address) {
-        return (root, query, builder) -> builder.like(builder.lower(root.get("address")), "%" + address.toLowerCase() + "%");
+        return (root, query, builder) -> builder.like(builder.lower(root.get("address")), LikePatterns.contains(address), LikePatterns.ESCAPE);
     }
 }
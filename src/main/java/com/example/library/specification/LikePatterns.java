@@ -0,0 +1,30 @@
+package com.example.library.specification;
+
+import java.util.Locale;
+
+public final class LikePatterns {
+
+    public static final char ESCAPE = '\\';
+
+    private LikePatterns() {
+    }
+
+    public static String contains(String value) {
+        return "%" + escape(value) + "%";
+    }
+
+    public static String startsWith(String value) {
+        return escape(value) + "%";
+    }
+
+    public static String wordStartsWith(String value) {
+        return "% " + escape(value) + "%";
+    }
+
+    private static String escape(String value) {
+        return value.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
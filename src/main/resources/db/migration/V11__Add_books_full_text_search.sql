@@ -0,0 +1,15 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE books
+    ADD COLUMN search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+            setweight(to_tsvector('simple', coalesce(author, '')), 'B')
+        ) STORED;
+
+CREATE INDEX idx_books_search_vector ON books USING GIN (search_vector);
+
+CREATE INDEX idx_books_title_author_trgm ON books USING GIN (lower(title || ' ' || author) gin_trgm_ops);
+
+CREATE INDEX idx_books_title_trgm ON books USING GIN (lower(title) gin_trgm_ops);
+CREATE INDEX idx_books_author_trgm ON books USING GIN (lower(author) gin_trgm_ops);
@@ -0,0 +1,7 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_users_name_trgm ON users USING GIN (lower(name) gin_trgm_ops);
+CREATE INDEX idx_users_email_trgm ON users USING GIN (lower(email) gin_trgm_ops);
+
+CREATE INDEX idx_libraries_name_trgm ON libraries USING GIN (lower(name) gin_trgm_ops);
+CREATE INDEX idx_libraries_address_trgm ON libraries USING GIN (lower(address) gin_trgm_ops);
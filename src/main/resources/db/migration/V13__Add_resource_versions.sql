@@ -0,0 +1,46 @@
+-- Version counters behind the ETags of GET /books, GET /libraries and GET /copies/book/{id}.
+-- A conditional request costs one primary-key lookup here instead of loading the resource.
+CREATE TABLE resource_versions (
+    resource VARCHAR(100) PRIMARY KEY,
+    version  BIGINT NOT NULL
+);
+
+CREATE OR REPLACE FUNCTION bump_resource_version(resource_name TEXT) RETURNS void AS $$
+BEGIN
+    INSERT INTO resource_versions (resource, version) VALUES (resource_name, 1)
+    ON CONFLICT (resource) DO UPDATE SET version = resource_versions.version + 1;
+END;
+$$ LANGUAGE plpgsql;
+
+-- One bump per statement, so bulk imports do not hammer the counter row.
+CREATE OR REPLACE FUNCTION bump_table_version() RETURNS trigger AS $$
+BEGIN
+    PERFORM bump_resource_version(TG_TABLE_NAME);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER books_resource_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON books
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_table_version();
+
+CREATE TRIGGER libraries_resource_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON libraries
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_table_version();
+
+-- Copies are versioned per book, so a checkout only invalidates that book's copy list.
+CREATE OR REPLACE FUNCTION bump_book_copies_version() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM bump_resource_version('copies:book:' || OLD.book_id);
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.book_id IS DISTINCT FROM OLD.book_id) THEN
+        PERFORM bump_resource_version('copies:book:' || NEW.book_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER copies_resource_version
+    AFTER INSERT OR UPDATE OR DELETE ON copies
+    FOR EACH ROW EXECUTE FUNCTION bump_book_copies_version();
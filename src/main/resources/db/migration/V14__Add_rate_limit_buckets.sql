@@ -0,0 +1,35 @@
+-- Token buckets of the login rate limiter when app.security.rate-limit.store=postgres, shared by all replicas.
+CREATE TABLE rate_limit_buckets (
+    bucket_key  VARCHAR(320) PRIMARY KEY,
+    tokens      DOUBLE PRECISION NOT NULL,
+    refilled_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_rate_limit_buckets_refilled_at ON rate_limit_buckets (refilled_at);
+
+-- Refills the bucket for the time since the last call and takes one token. The row lock of the UPDATE
+-- serializes concurrent calls for the same key. Returns 0 when a token was taken, otherwise the seconds
+-- until the next one.
+CREATE OR REPLACE FUNCTION take_rate_limit_token(bucket TEXT, capacity DOUBLE PRECISION, per_second DOUBLE PRECISION)
+    RETURNS DOUBLE PRECISION AS $$
+DECLARE
+    now_ts    TIMESTAMPTZ := clock_timestamp();
+    available DOUBLE PRECISION;
+BEGIN
+    INSERT INTO rate_limit_buckets (bucket_key, tokens, refilled_at) VALUES (bucket, capacity, now_ts)
+    ON CONFLICT (bucket_key) DO NOTHING;
+
+    UPDATE rate_limit_buckets
+       SET tokens = LEAST(capacity, tokens + GREATEST(0, EXTRACT(EPOCH FROM now_ts - refilled_at)) * per_second),
+           refilled_at = GREATEST(now_ts, refilled_at)
+     WHERE bucket_key = bucket
+    RETURNING tokens INTO available;
+
+    IF available < 1 THEN
+        RETURN (1 - available) / per_second;
+    END IF;
+
+    UPDATE rate_limit_buckets SET tokens = tokens - 1 WHERE bucket_key = bucket;
+    RETURN 0;
+END;
+$$ LANGUAGE plpgsql;
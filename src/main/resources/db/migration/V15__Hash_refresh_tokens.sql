@@ -0,0 +1,19 @@
+-- Refresh tokens are stored as the hex SHA-256 of the token given to the client, one row per user.
+-- Tokens already issued keep working: they are hashed in place (pgcrypto comes from V3).
+DELETE FROM refresh_tokens t
+ USING refresh_tokens newer
+ WHERE newer.user_id = t.user_id
+   AND (newer.created_at, newer.token) > (t.created_at, t.token);
+
+UPDATE refresh_tokens SET token = encode(digest(token, 'sha256'), 'hex');
+
+ALTER TABLE refresh_tokens RENAME COLUMN token TO token_hash;
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash TYPE VARCHAR(64);
+DROP INDEX IF EXISTS uq_refresh_token_token;
+
+-- conflict target of the rotating upsert at login
+DROP INDEX IF EXISTS idx_refresh_token_user_id;
+CREATE UNIQUE INDEX uq_refresh_tokens_user_id ON refresh_tokens (user_id);
+
+-- expired rows are purged in chunks by RefreshTokenService.purgeExpiredTokens
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
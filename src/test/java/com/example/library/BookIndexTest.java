@@ -0,0 +1,89 @@
+package com.example.library;
+
+import com.example.library.search.BookIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BookIndexTest {
+
+    private BookIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookIndex(3, 6, 4);
+        index.add(1L, "The Great Gatsby", "F. Scott Fitzgerald", "978-0-7432-7356-5");
+        index.add(2L, "Great Expectations", "Charles Dickens", "9780141439563");
+        index.add(3L, "The Gate", "Natsume Soseki", "9780811216951");
+    }
+
+    @Test
+    void shouldMatchWordPrefixes() {
+        BookIndex.SearchHits hits = index.search("great gats", 0, 10);
+
+        assertEquals(1, hits.total());
+        assertArrayEquals(new long[]{1L}, hits.bookIds());
+    }
+
+    @Test
+    void shouldRankFullTermAboveLongerWordWithSamePrefix() {
+        // the shorter document would win on length alone, so only the full-term hit can put "The Gate" first
+        index.add(4L, "Gates", "Anonymous", "9780000000002");
+
+        BookIndex.SearchHits hits = index.search("gate", 0, 10);
+
+        assertEquals(2, hits.total());
+        assertArrayEquals(new long[]{3L, 4L}, hits.bookIds());
+
+        hits = index.search("gat", 0, 10);
+        assertEquals(3, hits.total());
+    }
+
+    @Test
+    void shouldMatchTokensLongerThanMaxGramAgainstWholeWord() {
+        index.add(4L, "Pride and Prejudice", "Jane Austen", "9780141439518");
+        index.add(5L, "Harrison Bergeron", "Kurt Vonnegut", "9780000000019");
+
+        assertEquals(0, index.search("prejudiced", 0, 10).total());
+        assertArrayEquals(new long[]{4L}, index.search("prejudice", 0, 10).bookIds());
+        assertArrayEquals(new long[]{4L}, index.search("prejudi", 0, 10).bookIds());
+        assertEquals(0, index.search("harrisons", 0, 10).total());
+        assertArrayEquals(new long[]{1L}, index.search("fitzger", 0, 10).bookIds());
+        assertArrayEquals(new long[]{5L}, index.search("harriso", 0, 10).bookIds());
+
+        // every dictionary word starting with the token counts, not just the first one
+        index.add(6L, "Prejudicial Acts", "Anonymous", "9780000000026");
+        assertEquals(2, index.search("prejudi", 0, 10).total());
+        assertArrayEquals(new long[]{4L}, index.search("prejudic pride", 0, 10).bookIds());
+    }
+
+    @Test
+    void shouldFindByIsbnWithOrWithoutHyphens() {
+        assertArrayEquals(new long[]{1L}, index.search("9780743273565", 0, 10).bookIds());
+        assertArrayEquals(new long[]{1L}, index.search("978-0-7432-7356-5", 0, 10).bookIds());
+    }
+
+    @Test
+    void shouldPageThroughRankedResults() {
+        BookIndex.SearchHits firstPage = index.search("great", 0, 1);
+        BookIndex.SearchHits secondPage = index.search("great", 1, 1);
+
+        assertEquals(2, firstPage.total());
+        assertEquals(1, firstPage.bookIds().length);
+        assertEquals(1, secondPage.bookIds().length);
+        assertEquals(2, secondPage.total());
+        assertEquals(3L, firstPage.bookIds()[0] + secondPage.bookIds()[0]);
+    }
+
+    @Test
+    void shouldForgetRemovedAndReplacedBooks() {
+        index.remove(2L);
+        index.add(1L, "Tender Is the Night", "F. Scott Fitzgerald", "9780684801544");
+
+        assertEquals(0, index.search("great", 0, 10).total());
+        assertArrayEquals(new long[]{1L}, index.search("tender", 0, 10).bookIds());
+        assertEquals(2, index.size());
+    }
+}
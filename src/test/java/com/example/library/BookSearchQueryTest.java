@@ -0,0 +1,36 @@
+package com.example.library;
+
+import com.example.library.search.BookSearchQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BookSearchQueryTest {
+
+    @Test
+    void shouldLowercaseAndSplitOnPunctuation() {
+        assertEquals(List.of("f", "scott", "fitzgerald"), BookSearchQuery.tokenize("F. Scott-Fitzgerald"));
+    }
+
+    @Test
+    void shouldDropTsQueryOperators() {
+        List<String> tokens = BookSearchQuery.tokenize("gatsby & !(evil | :*)");
+
+        assertEquals(List.of("gatsby", "evil"), tokens);
+        assertEquals("gatsby:* & evil:*", BookSearchQuery.toPrefixTsQuery(tokens));
+    }
+
+    @Test
+    void shouldReturnNoTokensForBlankQuery() {
+        assertTrue(BookSearchQuery.tokenize("  ,. ").isEmpty());
+        assertTrue(BookSearchQuery.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void shouldLimitNumberOfTokens() {
+        assertEquals(8, BookSearchQuery.tokenize("a b c d e f g h i j k").size());
+    }
+}
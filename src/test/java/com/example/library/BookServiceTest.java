@@ -1,19 +1,27 @@
 package com.example.library;
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
+import com.example.library.component.OpenLibraryClient;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
 import com.example.library.model.Book;
 import com.example.library.repository.BookRepository;
 import com.example.library.repository.CopyRepository;
+import com.example.library.search.BookSearchEngine;
 import com.example.library.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -34,7 +42,16 @@ public class BookServiceTest {
     private CopyRepository copyRepository;
 
     @Mock
-    private RestTemplate restTemplate;
+    private OpenLibraryClient openLibraryClient;
+
+    @Mock
+    private BookSearchEngine bookSearchEngine;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @InjectMocks
     private BookService bookService;
@@ -89,7 +106,8 @@ public class BookServiceTest {
         }
     }""";
 
-        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockJson);
+        when(openLibraryClient.fetchBookByIsbn(isbn)).thenReturn(mockJson);
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         bookService.addBookWithIsbn(isbn);
 
@@ -100,6 +118,7 @@ public class BookServiceTest {
         assertEquals("Sample Book", saved.getTitle());
         assertEquals("John Doe", saved.getAuthor());
         assertEquals("123456", saved.getIsbn());
+        verify(bookSearchEngine).onBookSaved(saved);
     }
 
     @Test
@@ -155,6 +174,18 @@ public class BookServiceTest {
     }
 
 
+    @Test
+    void shouldDelegateFullTextSearchToSearchEngine() {
+        PageRequest pageable = PageRequest.of(0, 20);
+        Page<Book> page = new PageImpl<>(List.of(new Book("The Great Gatsby", "F. Scott Fitzgerald", "9780743273565")), pageable, 1);
+        when(bookSearchEngine.search("great gats", pageable)).thenReturn(page);
+
+        Page<Book> result = bookService.searchBooks("great gats", pageable);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("The Great Gatsby", result.getContent().get(0).getTitle());
+        verify(bookSearchEngine).search("great gats", pageable);
+    }
 
     @Test
     void shouldDeleteBookWhenNoCopiesExist() {
@@ -165,6 +196,8 @@ public class BookServiceTest {
         bookService.deleteBook(1L);
 
         verify(bookRepository).delete(book);
+        verify(bookSearchEngine).onBookDeleted(1L);
+        verify(cacheInvalidationBus).publishAfterCommit(new CacheInvalidation("Book", 1L));
     }
 
     @Test
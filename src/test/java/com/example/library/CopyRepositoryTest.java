@@ -0,0 +1,78 @@
+package com.example.library;
+
+import com.example.library.model.Book;
+import com.example.library.model.Copy;
+import com.example.library.model.CopyStatus;
+import com.example.library.model.Library;
+import com.example.library.model.LibraryStatus;
+import com.example.library.repository.CopyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the Flyway migrations are written for PostgreSQL, so the schema comes from the entities here
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+public class CopyRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CopyRepository copyRepository;
+
+    private Book book;
+    private Library library;
+
+    @BeforeEach
+    void setUp() {
+        book = entityManager.persist(new Book("Pan Tadeusz", "Adam Mickiewicz", "9788373271890"));
+        library = entityManager.persist(Library.builder()
+                .name("Central").address("Main St 1").status(LibraryStatus.ACTIVE).build());
+    }
+
+    @Test
+    void shouldBorrowReservedCopyOnlyOnce() {
+        Long copyId = copy(CopyStatus.RESERVED);
+
+        assertEquals(1, copyRepository.markBorrowed(copyId, true));
+        assertEquals(0, copyRepository.markBorrowed(copyId, true));
+        assertEquals(CopyStatus.BORROWED, status(copyId));
+    }
+
+    @Test
+    void shouldNotBorrowRemovedOrBorrowedCopyWithReservation() {
+        Long removed = copy(CopyStatus.REMOVED);
+        Long borrowed = copy(CopyStatus.BORROWED);
+
+        assertEquals(0, copyRepository.markBorrowed(removed, true));
+        assertEquals(0, copyRepository.markBorrowed(borrowed, true));
+        assertEquals(CopyStatus.REMOVED, status(removed));
+    }
+
+    @Test
+    void shouldBorrowAvailableCopyButNotReservedOneWithoutReservation() {
+        Long available = copy(CopyStatus.AVAILABLE);
+        Long reserved = copy(CopyStatus.RESERVED);
+
+        assertEquals(1, copyRepository.markBorrowed(available, false));
+        assertEquals(0, copyRepository.markBorrowed(reserved, false));
+        assertEquals(CopyStatus.RESERVED, status(reserved));
+    }
+
+    private Long copy(CopyStatus status) {
+        return entityManager.persistAndGetId(Copy.builder().book(book).library(library).status(status).build(), Long.class);
+    }
+
+    private CopyStatus status(Long copyId) {
+        entityManager.clear();
+        return entityManager.find(Copy.class, copyId).getStatus();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.library;
 
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
 import com.example.library.model.*;
@@ -35,6 +36,8 @@ public class CopyServiceTest {
     private LoanRepository loanRepository;
     @Mock
     private ReservationRepository reservationRepository;
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
 
     @InjectMocks
     private CopyService copyService;
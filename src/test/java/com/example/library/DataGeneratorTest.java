@@ -0,0 +1,139 @@
+package com.example.library;
+
+import com.example.library.datagen.DataGenerator;
+import com.example.library.datagen.DatasetSpec;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataGeneratorTest {
+
+    private static final DatasetSpec SMALL = new DatasetSpec(
+            42, 20, 2_000, 500, 5_000, 1_000, 1.07, 1.2, 730, LocalDate.of(2025, 6, 1));
+
+    @Test
+    void shouldLoadRequestedCardinalities() throws Exception {
+        JdbcTemplate jdbcTemplate = generate(database(), SMALL);
+
+        assertEquals(20, count(jdbcTemplate, "libraries"));
+        assertEquals(2_000, count(jdbcTemplate, "books"));
+        assertEquals(500, count(jdbcTemplate, "users"));
+        assertEquals(5_000, count(jdbcTemplate, "loans"));
+        assertEquals(1_000, count(jdbcTemplate, "reservations"));
+        assertTrue(count(jdbcTemplate, "copies") > 2_000);
+    }
+
+    @Test
+    void shouldGenerateSameRowsForSameSeed() throws Exception {
+        String query = "SELECT user_id, copy_id, start_date, return_date FROM loans ORDER BY id";
+
+        List<Map<String, Object>> first = generate(database(), SMALL).queryForList(query);
+        List<Map<String, Object>> second = generate(database(), SMALL).queryForList(query);
+        List<Map<String, Object>> otherSeed = generate(database(), SMALL.withSeed(7)).queryForList(query);
+
+        assertEquals(first, second);
+        assertNotEquals(first, otherSeed);
+    }
+
+    @Test
+    void shouldSkewLoansTowardsPopularTitlesAndActivePatrons() throws Exception {
+        JdbcTemplate jdbcTemplate = generate(database(), SMALL);
+
+        Long topTitles = jdbcTemplate.queryForObject("""
+                SELECT SUM(loans) FROM (
+                    SELECT COUNT(*) AS loans FROM loans l JOIN copies c ON c.id = l.copy_id
+                    GROUP BY c.book_id ORDER BY loans DESC LIMIT 20) top""", Long.class);
+        Long topPatrons = jdbcTemplate.queryForObject("""
+                SELECT SUM(loans) FROM (
+                    SELECT COUNT(*) AS loans FROM loans GROUP BY user_id ORDER BY loans DESC LIMIT 5) top""", Long.class);
+
+        assertTrue(topTitles > 5_000 * 0.3, "top 1% of titles had " + topTitles + " loans");
+        assertTrue(topPatrons > 5_000 * 0.3, "top 1% of patrons had " + topPatrons + " loans");
+    }
+
+    @Test
+    void shouldKeepCopyStatusConsistentWithOpenLoansAndReservations() throws Exception {
+        JdbcTemplate jdbcTemplate = generate(database(), SMALL);
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT copy_id FROM loans WHERE return_date IS NULL GROUP BY copy_id HAVING COUNT(*) > 1) twice",
+                Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM loans l JOIN copies c ON c.id = l.copy_id WHERE l.return_date IS NULL AND c.status <> 'BORROWED'",
+                Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservations r JOIN copies c ON c.id = r.copy_id WHERE r.status = 'WAITING' AND c.status <> 'RESERVED'",
+                Integer.class));
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM loans WHERE return_date IS NULL", Integer.class) > 0);
+    }
+
+    @Test
+    void shouldAppendToExistingDataAndKeepIdentityUsable() throws Exception {
+        DataSource dataSource = database();
+        generate(dataSource, SMALL);
+        JdbcTemplate jdbcTemplate = generate(dataSource, SMALL.withSeed(7));
+
+        assertEquals(4_000, count(jdbcTemplate, "books"));
+        assertEquals(1_000, count(jdbcTemplate, "users"));
+
+        jdbcTemplate.update("INSERT INTO books (title, author, isbn) VALUES ('Solaris', 'Stanislaw Lem', '9788308049737')");
+        assertEquals(4_001L, jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = '9788308049737'", Long.class));
+    }
+
+    @Test
+    void shouldWriteMostActivePatronsAsAccounts() throws Exception {
+        DataGenerator.GeneratedDataset dataset;
+        DataSource dataSource = database();
+        try (Connection connection = dataSource.getConnection()) {
+            dataset = new DataGenerator(SMALL, 500).generate(connection);
+        }
+        Path accounts = Files.createTempFile("accounts", ".csv");
+
+        dataset.writeAccounts(accounts, 10);
+
+        List<String> lines = Files.readAllLines(accounts);
+        assertEquals(11, lines.size());
+        assertEquals("email,password,role", lines.get(0));
+        assertEquals(dataset.patronEmail(0) + "," + DataGenerator.PASSWORD + ",USER", lines.get(1));
+        assertEquals(1, new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, dataset.patronEmail(0)));
+    }
+
+    private static JdbcTemplate generate(DataSource dataSource, DatasetSpec spec) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            new DataGenerator(spec, 500).generate(connection);
+        }
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static int count(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static DataSource database() throws Exception {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:datagen_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection()) {
+            for (String script : List.of("V1__Create_books_table.sql", "V1_2__Create_libraries_table.sql",
+                    "V1_3__Create_copies_table.sql", "V1_4__Create_users_table.sql", "V1_5__Create_loans_table.sql",
+                    "V1_6__Create_reservations_table.sql", "V6__Add_active_column_to_users.sql")) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/" + script));
+            }
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.library;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.library.exception.BadRequestException;
+import com.example.library.exception.ErrorReporter;
+import com.example.library.exception.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mail.MailSendException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ErrorReporterTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(ErrorReporter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private SimpleMeterRegistry meterRegistry;
+    private Instant now;
+    private ErrorReporter errorReporter;
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.WARN);
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        now = Instant.parse("2025-06-01T10:00:00Z");
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneId.of("UTC");
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        errorReporter = new ErrorReporter(beanFactory.getBeanProvider(MeterRegistry.class), clock, 3, Duration.ofMinutes(1), 5, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+    }
+
+    @Test
+    void shouldCountEveryFailureButLogOnlyTheFirstOnesOfAWindow() {
+        for (int i = 0; i < 50; i++) {
+            errorReporter.error("mail.overdue", "Sending overdue mail failed", new MailSendException("Connection refused"));
+        }
+
+        assertEquals(50, meterRegistry.get("library.errors")
+                .tag("key", "mail.overdue").tag("exception", "MailSendException").counter().count());
+        assertEquals(3, appender.list.size());
+        assertNotNull(appender.list.get(0).getThrowableProxy());
+        assertNull(appender.list.get(1).getThrowableProxy());
+    }
+
+    @Test
+    void shouldReportSuppressedCountInTheNextWindow() {
+        for (int i = 0; i < 10; i++) {
+            errorReporter.warn("http.not_found", "Not Found: Book with ID 1 does not exist");
+        }
+        now = now.plus(Duration.ofMinutes(1));
+        errorReporter.warn("http.not_found", "Not Found: Book with ID 1 does not exist");
+
+        assertEquals(4, appender.list.size());
+        assertTrue(appender.list.get(3).getFormattedMessage().contains("suppressed=7"));
+        assertTrue(appender.list.get(0).getFormattedMessage().contains("suppressed=0"));
+    }
+
+    @Test
+    void shouldLimitEachKeySeparately() {
+        for (int i = 0; i < 5; i++) {
+            errorReporter.warn("http.not_found", "Not Found");
+            errorReporter.warn("http.bad_request", "Bad Request");
+        }
+
+        assertEquals(6, appender.list.size());
+    }
+
+    @Test
+    void shouldSampleStackTracesWithinAWindow() {
+        ErrorReporter generous = new ErrorReporter(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class),
+                Clock.systemUTC(), 100, Duration.ofMinutes(1), 5, 1);
+
+        for (int i = 0; i < 20; i++) {
+            generous.error("mail.loan_success", "Sending loan_success mail failed", new MailSendException("timeout"));
+        }
+
+        long withStackTrace = appender.list.stream().filter(event -> event.getThrowableProxy() != null).count();
+        assertEquals(20, appender.list.size());
+        assertEquals(5, withStackTrace);
+    }
+
+    @Test
+    void shouldOnlyCountExpectedOutcomesUnlessDebugIsOn() {
+        NotFoundException notFound = new NotFoundException("Book with ID 1 does not exist");
+
+        for (int i = 0; i < 5; i++) {
+            errorReporter.expected("http.not_found", notFound);
+        }
+        assertTrue(appender.list.isEmpty());
+
+        logger.setLevel(Level.DEBUG);
+        for (int i = 0; i < 5; i++) {
+            errorReporter.expected("http.not_found", notFound);
+        }
+
+        assertEquals(10, meterRegistry.get("library.errors")
+                .tag("key", "http.not_found").tag("exception", "NotFoundException").counter().count());
+        assertEquals(3, appender.list.size());
+        assertEquals(Level.DEBUG, appender.list.get(0).getLevel());
+    }
+
+    @Test
+    void shouldNotCaptureStackTraceOfBusinessExceptions() {
+        BadRequestException exception = new BadRequestException("This copy isn't available");
+
+        assertEquals(0, exception.getStackTrace().length);
+        assertEquals(Map.of("error", "This copy isn't available"), exception.body());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.library;
+
+import com.example.library.exception.LoginCapacityExceededException;
+import com.example.library.security.HashingPasswordEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashingPasswordEncoderTest {
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private final AtomicInteger bcryptChecks = new AtomicInteger();
+    private final PasswordEncoder counting = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return bcrypt.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            bcryptChecks.incrementAndGet();
+            return bcrypt.matches(rawPassword, encodedPassword);
+        }
+    };
+    private HashingPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    void shouldSkipBcryptForRecentlyVerifiedPassword() {
+        encoder = new HashingPasswordEncoder(counting, 2, 4, 100, Duration.ofMinutes(10));
+        String hash = encoder.encode("user");
+
+        assertTrue(encoder.matches("user", hash));
+        assertTrue(encoder.matches("user", hash));
+        assertTrue(encoder.matches("user", hash));
+
+        assertEquals(1, bcryptChecks.get());
+    }
+
+    @Test
+    void shouldAlwaysRunBcryptForWrongPassword() {
+        encoder = new HashingPasswordEncoder(counting, 2, 4, 100, Duration.ofMinutes(10));
+        String hash = encoder.encode("user");
+
+        assertTrue(encoder.matches("user", hash));
+        assertFalse(encoder.matches("guess", hash));
+        assertFalse(encoder.matches("guess", hash));
+
+        assertEquals(3, bcryptChecks.get());
+    }
+
+    @Test
+    void shouldRejectWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        encoder = new HashingPasswordEncoder(blocking, 1, 1, 100, Duration.ZERO);
+
+        Thread running = Thread.ofPlatform().start(() -> encoder.matches("a", "a"));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        Thread queued = Thread.ofPlatform().start(() -> encoder.matches("b", "b"));
+        while (queued.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(LoginCapacityExceededException.class, () -> encoder.matches("c", "c"));
+
+        release.countDown();
+        running.join();
+        queued.join();
+    }
+
+    @Test
+    void shouldUpgradeUnprefixedAndWeakerHashes() {
+        BCryptPasswordEncoder configured = new BCryptPasswordEncoder(5);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", configured));
+        delegating.setDefaultPasswordEncoderForMatches(configured);
+        encoder = new HashingPasswordEncoder(delegating, 0, 0, 100, Duration.ofMinutes(10));
+
+        String legacy = bcrypt.encode("user");
+        String weaker = "{bcrypt}" + bcrypt.encode("user");
+        String current = encoder.encode("user");
+
+        assertTrue(encoder.matches("user", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertTrue(encoder.upgradeEncoding(weaker));
+        assertTrue(current.startsWith("{bcrypt}"));
+        assertFalse(encoder.upgradeEncoding(current));
+    }
+}
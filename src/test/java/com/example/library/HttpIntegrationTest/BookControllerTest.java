@@ -7,10 +7,14 @@ import com.example.library.exception.NotFoundException;
 import com.example.library.model.Book;
 import com.example.library.service.BookService;
 import com.example.library.service.JwtService;
+import com.example.library.service.ResourceVersionService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -33,12 +37,21 @@ class BookControllerTest {
     @MockitoBean
     private BookService bookService;
 
+    @MockitoBean
+    private ResourceVersionService resourceVersionService;
+
 
     @MockitoBean
     JwtService jwtService;
     @MockitoBean
     JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // the tag comes from the stubbed etag(); the service decides whether the body is loaded
+    @BeforeEach
+    void readThroughVersionService() {
+        when(resourceVersionService.readIfModified(any(), any(), any(String[].class))).thenCallRealMethod();
+    }
+
     /* ---------- GET ---------- */
 
     @Test
@@ -75,6 +88,27 @@ class BookControllerTest {
                 .andExpect(jsonPath("$[1].title").value("Title2"));
     }
 
+    @Test
+    void shouldTagBookListWithVersion() throws Exception {
+        when(resourceVersionService.etag(ResourceVersionService.BOOKS)).thenReturn("\"v7\"");
+        when(bookService.getAllBooks()).thenReturn(List.of(new Book(1L, "Title1", "Author1", "ISBN1")));
+
+        mockMvc.perform(get("/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v7\""));
+    }
+
+    @Test
+    void shouldReturnNotModifiedWithoutLoadingBooks() throws Exception {
+        when(resourceVersionService.etag(ResourceVersionService.BOOKS)).thenReturn("\"v7\"");
+
+        mockMvc.perform(get("/books").header("If-None-Match", "\"v7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(bookService);
+    }
+
     @Test
     void shouldReturnNoContentWhenNoBooks() throws Exception {
         when(bookService.getAllBooks()).thenReturn(Collections.emptyList());
@@ -110,6 +144,28 @@ class BookControllerTest {
                 .andExpect(jsonPath("$[0].isbn").value("9780743273565"));
     }
 
+    @Test
+    void shouldReturnPagedFullTextResults() throws Exception {
+        Book mockBook = new Book(1L,
+                "The Great Gatsby",
+                "F. Scott Fitzgerald",
+                "9780743273565");
+
+        when(bookService.searchBooks("great gats", PageRequest.of(1, 10)))
+                .thenReturn(new PageImpl<>(List.of(mockBook), PageRequest.of(1, 10), 11));
+
+        mockMvc.perform(get("/books/search")
+                        .param("q", "great gats")
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "11"))
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].title").value("The Great Gatsby"));
+
+        verify(bookService, never()).getBooksByParams(any(), any(), any());
+    }
+
     /* ---------- POST ---------- */
 
     @Test
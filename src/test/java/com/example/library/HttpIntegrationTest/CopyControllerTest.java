@@ -8,6 +8,7 @@ import com.example.library.model.*;
 import com.example.library.service.AuthorizationService;
 import com.example.library.service.CopyService;
 import com.example.library.service.JwtService;
+import com.example.library.service.ResourceVersionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +37,9 @@ class CopyControllerTest {
     @MockitoBean
     CopyService copyService;
 
+    @MockitoBean
+    ResourceVersionService resourceVersionService;
+
     @MockitoBean(name = "authorizationService")
     AuthorizationService authorizationService;
 
@@ -45,6 +49,12 @@ class CopyControllerTest {
     @MockitoBean
     JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // the tag comes from the stubbed etag(); the service decides whether the body is loaded
+    @BeforeEach
+    void readThroughVersionService() {
+        when(resourceVersionService.readIfModified(any(), any(), any(String[].class))).thenCallRealMethod();
+    }
+
     @BeforeEach
     void allowAllSpELChecks() {
         when(authorizationService.isLibrarianOfLibrary(anyLong())).thenReturn(true);
@@ -98,6 +108,31 @@ class CopyControllerTest {
                 .andExpect(jsonPath("$.error").value("Copy with ID 5 does not exist"));
     }
 
+    /* ---------- GET /copies/book/{bookId} ---------- */
+
+    @Test
+    void getCopiesByBook_changedVersion_ok() throws Exception {
+        when(resourceVersionService.etag(ResourceVersionService.copiesOfBook(1L),
+                ResourceVersionService.BOOKS, ResourceVersionService.LIBRARIES)).thenReturn("\"v5-2-1\"");
+        when(copyService.getCopiesByBook(1L)).thenReturn(List.of(buildCopy(3L, CopyStatus.AVAILABLE)));
+
+        mockMvc.perform(get("/copies/book/{bookId}", 1L).header("If-None-Match", "\"v4-2-1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v5-2-1\""))
+                .andExpect(jsonPath("$[0].id").value(3));
+    }
+
+    @Test
+    void getCopiesByBook_notModified() throws Exception {
+        when(resourceVersionService.etag(ResourceVersionService.copiesOfBook(1L),
+                ResourceVersionService.BOOKS, ResourceVersionService.LIBRARIES)).thenReturn("\"v5-2-1\"");
+
+        mockMvc.perform(get("/copies/book/{bookId}", 1L).header("If-None-Match", "\"v5-2-1\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(copyService);
+    }
+
     /* ---------- POST /copies/{bookId}/{libraryId} ---------- */
 
     @Test
@@ -3,16 +3,23 @@ package com.example.library.HttpIntegrationTest;
 import com.example.library.component.JwtAuthenticationFilter;
 import com.example.library.controller.LibraryController;
 import com.example.library.dto.LibraryDTO;
+import com.example.library.dto.LibrarySummaryDTO;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
 import com.example.library.model.Library;
 import com.example.library.model.LibraryStatus;
 import com.example.library.service.JwtService;
 import com.example.library.service.LibraryService;
+import com.example.library.service.ResourceVersionService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -37,12 +44,21 @@ class LibraryControllerTest {
     @MockitoBean
     LibraryService libraryService;
 
+    @MockitoBean
+    ResourceVersionService resourceVersionService;
+
     @MockitoBean
     JwtService jwtService;
 
     @MockitoBean
     JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // the tag comes from the stubbed etag(); the service decides whether the body is loaded
+    @BeforeEach
+    void readThroughVersionService() {
+        when(resourceVersionService.readIfModified(any(), any(), any(String[].class))).thenCallRealMethod();
+    }
+
     private Library buildLibrary(long id, String name, String address, LibraryStatus status) {
         return Library.builder()
                 .id(id)
@@ -65,6 +81,16 @@ class LibraryControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1));
     }
 
+    @Test
+    void getAllLibraries_notModified() throws Exception {
+        when(resourceVersionService.etag(ResourceVersionService.LIBRARIES)).thenReturn("\"v3\"");
+
+        mockMvc.perform(get("/libraries").header("If-None-Match", "\"v3\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(libraryService);
+    }
+
     @Test
     void getAllLibraries_noContent() throws Exception {
         when(libraryService.getAllLibraries()).thenReturn(Collections.emptyList());
@@ -209,17 +235,36 @@ class LibraryControllerTest {
 
     @Test
     void searchLibraries_results_ok() throws Exception {
-        when(libraryService.searchLibraries("Central", null))
-                .thenReturn(List.of(buildLibrary(1L, "Central", "Main St", LibraryStatus.ACTIVE)));
+        when(libraryService.searchLibraries("Central", null, PageRequest.of(0, 20, Sort.by("id"))))
+                .thenReturn(new PageImpl<>(
+                        List.of(new LibrarySummaryDTO(1L, "Central", "Main St", LibraryStatus.ACTIVE)),
+                        PageRequest.of(0, 20), 1));
 
         mockMvc.perform(get("/libraries/search").param("name", "Central"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
                 .andExpect(jsonPath("$[0].name").value("Central"));
     }
 
+    @Test
+    void searchLibraries_pageParams_passedThroughAndSizeCapped() throws Exception {
+        when(libraryService.searchLibraries(null, "Main", PageRequest.of(2, 100, Sort.by("id"))))
+                .thenReturn(new PageImpl<>(
+                        List.of(new LibrarySummaryDTO(7L, "Branch", "Main St 7", LibraryStatus.ACTIVE)),
+                        PageRequest.of(2, 100), 201));
+
+        mockMvc.perform(get("/libraries/search")
+                        .param("address", "Main")
+                        .param("page", "2")
+                        .param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "201"))
+                .andExpect(jsonPath("$[0].id").value(7));
+    }
+
     @Test
     void searchLibraries_noContent() throws Exception {
-        when(libraryService.searchLibraries(null, "Unknown")).thenReturn(Collections.emptyList());
+        when(libraryService.searchLibraries(null, "Unknown", PageRequest.of(0, 20, Sort.by("id")))).thenReturn(Page.empty());
 
         mockMvc.perform(get("/libraries/search").param("address", "Unknown"))
                 .andExpect(status().isNoContent());
@@ -20,6 +20,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -76,7 +77,11 @@ class LoanControllerTest {
 
     @Test
     void getAllLoans_ok() throws Exception {
-        when(loanService.getAllLoans()).thenReturn(List.of(dto(1)));
+        doAnswer(invocation -> {
+            Consumer<LoanDTO> consumer = invocation.getArgument(0);
+            consumer.accept(dto(1));
+            return null;
+        }).when(loanService).streamAllLoans(any());
 
         mockMvc.perform(get("/loans"))
                 .andExpect(status().isOk())
@@ -86,7 +91,7 @@ class LoanControllerTest {
 
     @Test
     void getAllLoans_noContent() throws Exception {
-        when(loanService.getAllLoans()).thenReturn(Collections.emptyList());
+        doNothing().when(loanService).streamAllLoans(any());
 
         mockMvc.perform(get("/loans"))
                 .andExpect(status().isNoContent());
@@ -148,11 +153,14 @@ class LoanControllerTest {
 
     @Test
     void createLoan_ok() throws Exception {
+        when(loanService.borrowBook(5L, 12L)).thenReturn(42L);
+
         mockMvc.perform(post("/loans")
                         .param("userId", "5")
                         .param("copyId", "12"))
-                .andExpect(status().isOk())
-                .andExpect(content().string("Book borrowed successfully"));
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/loans/42"))
+                .andExpect(jsonPath("$.loanId").value(42));
     }
 
     @Test
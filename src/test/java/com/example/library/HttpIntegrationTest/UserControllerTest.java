@@ -15,6 +15,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -268,18 +272,19 @@ class UserControllerTest {
 
     @Test
     void searchUsers_ok() throws Exception {
-        when(userService.searchUsers("John", null, null))
-                .thenReturn(List.of(dto(13L)));
+        when(userService.searchUsers("John", null, null, PageRequest.of(0, 20, Sort.by("id"))))
+                .thenReturn(new PageImpl<>(List.of(dto(13L)), PageRequest.of(0, 20), 1));
 
         mockMvc.perform(get("/users/search").param("name", "John"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
                 .andExpect(jsonPath("$[0].id").value(13));
     }
 
     @Test
     void searchUsers_noContent() throws Exception {
-        when(userService.searchUsers(null, null, null))
-                .thenReturn(Collections.emptyList());
+        when(userService.searchUsers(null, null, null, PageRequest.of(0, 20, Sort.by("id"))))
+                .thenReturn(Page.empty());
 
         mockMvc.perform(get("/users/search"))
                 .andExpect(status().isNoContent());
@@ -0,0 +1,81 @@
+package com.example.library;
+
+import com.example.library.datasource.InstrumentedDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InstrumentedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        dataSource = new InstrumentedDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:instrumented;DB_CLOSE_DELAY=-1", "sa", ""),
+                beanFactory.getBeanProvider(MeterRegistry.class),
+                "primary");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldTagAcquireAndHoldTimeWithEndpointPattern() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/loans/user/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/loans/user/{userId}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("SELECT 1");
+            Thread.sleep(20);
+        }
+
+        Timer acquire = meterRegistry.get("db.connection.acquire")
+                .tags("pool", "primary", "endpoint", "GET /loans/user/{userId}").timer();
+        Timer hold = meterRegistry.get("db.connection.hold")
+                .tags("pool", "primary", "endpoint", "GET /loans/user/{userId}").timer();
+        assertEquals(1, acquire.count());
+        assertEquals(1, hold.count());
+        assertTrue(hold.totalTime(TimeUnit.MILLISECONDS) >= 20);
+    }
+
+    @Test
+    void shouldTagConnectionsOutsideRequestsAsBackground() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertEquals(1, meterRegistry.get("db.connection.hold")
+                .tags("pool", "primary", "endpoint", "background").timer().count());
+    }
+
+    @Test
+    void shouldTagRequestsBeforeHandlerMappingAsUnmapped() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("POST", "/auth/login")));
+
+        dataSource.getConnection().close();
+
+        assertNotNull(meterRegistry.find("db.connection.acquire").tags("endpoint", "unmapped").timer());
+    }
+}
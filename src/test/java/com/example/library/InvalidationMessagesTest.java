@@ -0,0 +1,66 @@
+package com.example.library;
+
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.InvalidationMessages;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InvalidationMessagesTest {
+
+    @Test
+    void shouldGroupIdsOfOneEntityInPayload() {
+        List<CacheInvalidation> batch = List.of(
+                new CacheInvalidation("Book", 1L),
+                new CacheInvalidation("Book", 2L),
+                CacheInvalidation.all("User"));
+
+        List<String> payloads = InvalidationMessages.encode("node1", batch, 7900);
+
+        assertEquals(List.of("node1;Book:1,2;User:*"), payloads);
+        InvalidationMessages.Message message = InvalidationMessages.decode(payloads.get(0));
+        assertEquals("node1", message.origin());
+        assertEquals(batch, message.invalidations());
+    }
+
+    @Test
+    void shouldCoalesceDuplicatesAndLargeBursts() {
+        List<CacheInvalidation> burst = new ArrayList<>(List.of(
+                new CacheInvalidation("Library", 3L),
+                new CacheInvalidation("Library", 3L)));
+        LongStream.rangeClosed(1, 150).forEach(id -> burst.add(new CacheInvalidation("Copy", id)));
+
+        List<CacheInvalidation> coalesced = InvalidationMessages.coalesce(burst, 100);
+
+        assertEquals(List.of(CacheInvalidation.all("Copy"), new CacheInvalidation("Library", 3L)), coalesced);
+    }
+
+    @Test
+    void shouldCollapseToFullFlush() {
+        List<CacheInvalidation> coalesced = InvalidationMessages.coalesce(
+                List.of(new CacheInvalidation("Book", 1L), CacheInvalidation.everything()), 100);
+
+        assertEquals(List.of(CacheInvalidation.everything()), coalesced);
+        assertEquals(List.of("node1;*"), InvalidationMessages.encode("node1", coalesced, 7900));
+    }
+
+    @Test
+    void shouldSplitPayloadsOverTheSizeLimit() {
+        List<CacheInvalidation> batch = LongStream.rangeClosed(1000, 1099)
+                .mapToObj(id -> new CacheInvalidation("Book", id))
+                .toList();
+
+        List<String> payloads = InvalidationMessages.encode("node1", batch, 64);
+
+        assertTrue(payloads.size() > 1);
+        payloads.forEach(payload -> assertTrue(payload.length() <= 64));
+        assertEquals(batch, payloads.stream()
+                .flatMap(payload -> InvalidationMessages.decode(payload).invalidations().stream())
+                .toList());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.library;
+
+import com.example.library.exception.NotFoundException;
+import com.example.library.metrics.LibraryMetrics;
+import com.example.library.metrics.LibraryMetrics.Mail;
+import com.example.library.metrics.LibraryMetrics.Operation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LibraryMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LibraryMetrics metrics = new LibraryMetrics(registry);
+
+    @Test
+    void shouldTagOperationsByOutcomeAndRethrow() {
+        Long loanId = metrics.operation(Operation.BORROW, () -> 42L);
+
+        assertEquals(42L, loanId);
+        assertThrows(NotFoundException.class, () -> metrics.operation(Operation.BORROW, () -> {
+            throw new NotFoundException("Copy not found!");
+        }));
+        assertThrows(IllegalStateException.class, () -> metrics.operation(Operation.BORROW, () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(1, registry.get("library.operations").tags("operation", "borrow", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("library.operations").tags("operation", "borrow", "outcome", "not_found").timer().count());
+        assertEquals(1, registry.get("library.operations").tags("operation", "borrow", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void shouldCountFailedMails() {
+        assertThrows(MailSendException.class, () -> metrics.mail(Mail.OVERDUE, () -> {
+            throw new MailSendException("connection refused");
+        }));
+
+        assertEquals(1, registry.get("library.mail.send").tags("type", "overdue", "outcome", "failure").timer().count());
+    }
+
+    @Test
+    void shouldTreatMissingSubjectAsInvalidToken() {
+        assertNull(metrics.jwtValidation(() -> null));
+        assertEquals("user@example.com", metrics.jwtValidation(() -> "user@example.com"));
+
+        assertEquals(1, registry.get("library.jwt.validation").tag("outcome", "invalid").timer().count());
+        assertEquals(1, registry.get("library.jwt.validation").tag("outcome", "valid").timer().count());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.library;
 
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.dto.LibraryDTO;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
@@ -39,6 +40,8 @@ class LibraryServiceTest {
     private UserService userService;
     @Mock
     private Clock clock;
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
 
     @InjectMocks
     private LibraryService libraryService;
@@ -1,8 +1,12 @@
 package com.example.library;
 
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.dto.LoanDTO;
+import com.example.library.event.LoanCreatedEvent;
 import com.example.library.exception.BadRequestException;
+import com.example.library.metrics.LibraryMetrics;
 import com.example.library.model.*;
 import com.example.library.repository.CopyRepository;
 import com.example.library.repository.LoanRepository;
@@ -10,6 +14,7 @@ import com.example.library.repository.ReservationRepository;
 import com.example.library.repository.UserRepository;
 import com.example.library.service.LoanService;
 import com.example.library.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,17 +22,24 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -49,11 +61,22 @@ public class LoanServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     private final Clock fixedClock = Clock.fixed(
             LocalDate.of(2025, 6, 1).atStartOfDay(ZoneId.systemDefault()).toInstant(),
             ZoneId.systemDefault()
     );
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private LoanService loanService;
 
@@ -65,8 +88,30 @@ public class LoanServiceTest {
                 copyRepository,
                 reservationRepository,
                 notificationService,
-                fixedClock
+                fixedClock,
+                new TransactionTemplate(transactionManager),
+                eventPublisher,
+                new LibraryMetrics(meterRegistry),
+                cacheInvalidationBus
         );
+        ReflectionTestUtils.setField(loanService, "streamPageSize", 2);
+    }
+
+    @Test
+    void shouldStreamLoansPageByPageAfterLastSeenId() {
+        when(loanRepository.findDtoPageAfter(0L, PageRequest.ofSize(2))).thenReturn(List.of(loanDto(3L), loanDto(5L)));
+        when(loanRepository.findDtoPageAfter(5L, PageRequest.ofSize(2))).thenReturn(List.of(loanDto(8L)));
+        List<Long> streamed = new ArrayList<>();
+
+        loanService.streamAllLoans(loan -> streamed.add(loan.id()));
+
+        assertEquals(List.of(3L, 5L, 8L), streamed);
+        verify(loanRepository, times(2)).findDtoPageAfter(anyLong(), any());
+    }
+
+    private static LoanDTO loanDto(Long id) {
+        LocalDate start = LocalDate.of(2025, 6, 1);
+        return new LoanDTO(id, 1L, "user@example.com", 2L, "Title", 3L, "Library", start, start.plusWeeks(2), null);
     }
 
 
@@ -81,6 +126,8 @@ public class LoanServiceTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(copyRepository.findById(copyId)).thenReturn(Optional.of(copy));
         when(reservationRepository.existsReservationByCopy_IdAndUser_IdAndStatus(copyId, userId, ReservationStatus.WAITING)).thenReturn(true);
+        when(copyRepository.markBorrowed(copyId, true)).thenReturn(1);
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         loanService.borrowBook(userId, copyId);
         ArgumentCaptor<Loan> captor = ArgumentCaptor.forClass(Loan.class);
@@ -97,8 +144,10 @@ public class LoanServiceTest {
         assertNull(savedLoan.getReturnDate());
         assertEquals(CopyStatus.BORROWED, copy.getStatus());
 
-        verify(copyRepository).save(copy);
-        verify(notificationService).sendLoanSuccess(eq("user@example.com"), any(Loan.class));
+        verify(copyRepository).markBorrowed(copyId, true);
+        verify(reservationRepository).realizeWaitingReservation(copyId);
+        verify(eventPublisher).publishEvent(any(LoanCreatedEvent.class));
+        verifyNoInteractions(notificationService);
     }
 
     @Test
@@ -128,6 +177,8 @@ public class LoanServiceTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(copyRepository.findById(copyId)).thenReturn(Optional.of(copy));
         when(reservationRepository.existsReservationByCopy_IdAndUser_IdAndStatus(copyId, userId, ReservationStatus.WAITING)).thenReturn(false);
+        when(copyRepository.markBorrowed(copyId, false)).thenReturn(1);
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         loanService.borrowBook(userId, copyId);
         ArgumentCaptor<Loan> captor = ArgumentCaptor.forClass(Loan.class);
@@ -144,15 +195,58 @@ public class LoanServiceTest {
         assertNull(savedLoan.getReturnDate());
         assertEquals(CopyStatus.BORROWED, copy.getStatus());
 
-        verify(copyRepository).save(copy);
-        verify(notificationService).sendLoanSuccess(eq("user@example.com"), any(Loan.class));
+        verify(copyRepository).markBorrowed(copyId, false);
+        verify(cacheInvalidationBus).publishAfterCommit(CacheInvalidation.of(Copy.class, copyId));
+        verify(eventPublisher).publishEvent(any(LoanCreatedEvent.class));
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void shouldRejectBorrowWhenCopyWasTakenConcurrently() {
+        Long userId = 1L;
+        Long copyId = 2L;
+        User user = new User(); user.setId(userId); user.setEmail("user@example.com");
+        Copy copy = new Copy(); copy.setId(copyId); copy.setStatus(CopyStatus.AVAILABLE);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(copyRepository.findById(copyId)).thenReturn(Optional.of(copy));
+        when(reservationRepository.existsReservationByCopy_IdAndUser_IdAndStatus(copyId, userId, ReservationStatus.WAITING)).thenReturn(false);
+        when(copyRepository.markBorrowed(copyId, false)).thenReturn(0);
+
+        assertThrows(BadRequestException.class, () -> loanService.borrowBook(userId, copyId));
+        verifyNoInteractions(loanRepository, eventPublisher, cacheInvalidationBus);
+        assertEquals(1, meterRegistry.get("library.operations")
+                .tags("operation", "borrow", "outcome", "rejected").timer().count());
+    }
+
+    @Test
+    void shouldRejectSecondBorrowOfReservedCopy() {
+        Long userId = 1L;
+        Long copyId = 2L;
+        User user = new User(); user.setId(userId); user.setEmail("user@example.com");
+        Copy copy = new Copy(); copy.setId(copyId); copy.setStatus(CopyStatus.RESERVED);
+
+        // a double submit: both requests still see the WAITING reservation, only the row guard tells them apart
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(copyRepository.findById(copyId)).thenReturn(Optional.of(copy));
+        when(reservationRepository.existsReservationByCopy_IdAndUser_IdAndStatus(copyId, userId, ReservationStatus.WAITING)).thenReturn(true);
+        when(copyRepository.markBorrowed(copyId, true)).thenReturn(1, 0);
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        loanService.borrowBook(userId, copyId);
+        BadRequestException second = assertThrows(BadRequestException.class, () -> loanService.borrowBook(userId, copyId));
+
+        assertEquals("This copy isn't available", second.getMessage());
+        verify(loanRepository, times(1)).save(any(Loan.class));
+        verify(eventPublisher, times(1)).publishEvent(any(LoanCreatedEvent.class));
     }
 
     @Test
     void shouldReturnBookWhenLoanExistsAndNotReturned() {
         Loan loan = new Loan();
         loan.setId(1L);
-        loan.setCopy(new Copy());
+        Copy copy = new Copy(); copy.setId(2L);
+        loan.setCopy(copy);
         loan.setReturnDate(null);
 
         when(loanRepository.findByIdAndReturnDateIsNull(1L)).thenReturn(Optional.of(loan));
@@ -161,6 +255,7 @@ public class LoanServiceTest {
 
         assertEquals(LocalDate.now(fixedClock), loan.getReturnDate());
         assertEquals(CopyStatus.AVAILABLE, loan.getCopy().getStatus());
+        verify(cacheInvalidationBus).publishAfterCommit(CacheInvalidation.of(Copy.class, 2L));
     }
 
     @Test
@@ -199,6 +294,7 @@ public class LoanServiceTest {
         loanService.checkLoans();
 
         verify(notificationService).sendOverdueNotification(eq("user@example.com"), any(Loan.class));
+        assertEquals(1.0, meterRegistry.get("library.jobs.batch.size").tag("job", "check_loans").summary().totalAmount());
     }
 
     @Test
@@ -0,0 +1,164 @@
+package com.example.library;
+
+import com.example.library.security.InMemoryRateLimitStore;
+import com.example.library.security.LoginRateLimitFilter;
+import com.example.library.security.LoginRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Instant now;
+    private LoginRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        now = Instant.parse("2025-06-01T08:00:00Z");
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneId.of("UTC");
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(clock, 1000, Duration.ofMinutes(10));
+        rateLimiter = new LoginRateLimiter(store, meterRegistry, true, 10, Duration.ofMinutes(1), 3, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldLimitLoginsPerAccountAcrossAddresses() {
+        assertEquals(0, rateLimiter.acquire("login", "10.0.0.1", "user@example.com"));
+        assertEquals(0, rateLimiter.acquire("login", "10.0.0.2", "User@Example.com"));
+        assertEquals(0, rateLimiter.acquire("login", "10.0.0.3", "user@example.com"));
+
+        long wait = rateLimiter.acquire("login", "10.0.0.4", "user@example.com");
+
+        assertEquals(20_000, wait);
+        assertEquals(0, rateLimiter.acquire("login", "10.0.0.4", "librarian@example.com"));
+        assertEquals(1, meterRegistry.get("library.rate_limit.rejected")
+                .tag("endpoint", "login").tag("limit", "account").counter().count());
+    }
+
+    @Test
+    void shouldLimitAddressAndRefillOverTime() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.acquire("refresh", "10.0.0.1", null));
+        }
+        assertTrue(rateLimiter.acquire("refresh", "10.0.0.1", null) > 0);
+
+        now = now.plus(Duration.ofSeconds(7));
+
+        assertEquals(0, rateLimiter.acquire("refresh", "10.0.0.1", null));
+        assertTrue(rateLimiter.acquire("refresh", "10.0.0.1", null) > 0);
+        assertEquals(2, meterRegistry.get("library.rate_limit.rejected")
+                .tag("endpoint", "refresh").tag("limit", "ip").counter().count());
+    }
+
+    @Test
+    void shouldRejectWith429AndPassBodyOnWhenAllowed() throws Exception {
+        LoginRateLimitFilter filter = new LoginRateLimitFilter(rateLimiter, new ObjectMapper());
+        String body = "{ \"email\": \"user@example.com\", \"password\": \"user\" }";
+
+        for (int i = 0; i < 3; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(login(body), response, chain);
+
+            assertEquals(200, response.getStatus());
+            assertEquals(body, new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(login(body), response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("20", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("Too many attempts"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void shouldReplayBufferedBodyAsFiniteServletStream() throws Exception {
+        LoginRateLimitFilter filter = new LoginRateLimitFilter(rateLimiter, new ObjectMapper());
+        String body = "{ \"email\": \"user@example.com\", \"password\": \"user\" }";
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(login(body), new MockHttpServletResponse(), chain);
+
+        ServletInputStream stream = chain.getRequest().getInputStream();
+        assertFalse(stream.isFinished());
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> calls = new ArrayList<>();
+        stream.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                calls.add("data");
+                read.write(stream.readAllBytes());
+            }
+
+            @Override
+            public void onAllDataRead() {
+                calls.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                calls.add("error");
+            }
+        });
+
+        assertEquals(List.of("data", "done"), calls);
+        assertEquals(body, read.toString(StandardCharsets.UTF_8));
+        assertTrue(stream.isFinished());
+    }
+
+    @Test
+    void shouldPassOversizedBodyOnWhole() throws Exception {
+        LoginRateLimitFilter filter = new LoginRateLimitFilter(rateLimiter, new ObjectMapper());
+        String body = "{ \"email\": \"user@example.com\", \"password\": \"" + "x".repeat(5000) + "\" }";
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(login(body), new MockHttpServletResponse(), chain);
+
+        ServletInputStream stream = chain.getRequest().getInputStream();
+        assertEquals(body, new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        assertTrue(stream.isFinished());
+    }
+
+    private MockHttpServletRequest login(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setServletPath("/auth/login");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
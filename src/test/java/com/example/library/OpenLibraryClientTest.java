@@ -0,0 +1,146 @@
+package com.example.library;
+
+import com.example.library.component.OpenLibraryClient;
+import com.example.library.config.OpenLibraryConfig;
+import com.example.library.exception.ServiceUnavailableException;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpenLibraryClientTest {
+
+    private static final String RESPONSE = "{\"records\":{}}";
+
+    private final AtomicLong delayMs = new AtomicLong();
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+    private OpenLibraryClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/api/volumes/brief/isbn/", exchange -> {
+            hits.incrementAndGet();
+            try {
+                Thread.sleep(delayMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        OpenLibraryConfig config = new OpenLibraryConfig();
+        meterRegistry = new SimpleMeterRegistry();
+        RestTemplate restTemplate = config.openLibraryRestTemplate(
+                new RestTemplateBuilder(),
+                "http://localhost:" + server.getAddress().getPort(),
+                Duration.ofMillis(200),
+                Duration.ofMillis(200),
+                5,
+                Duration.ofMillis(200));
+        circuitBreaker = config.openLibraryCircuitBreaker(
+                meterRegistry, 50, Duration.ofMillis(150), 4, 4, Duration.ofMinutes(1));
+        Bulkhead bulkhead = config.openLibraryBulkhead(meterRegistry, 2, Duration.ZERO);
+
+        client = new OpenLibraryClient(restTemplate, circuitBreaker, bulkhead);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void shouldReturnResponseWhenUpstreamIsHealthy() {
+        assertEquals(RESPONSE, client.fetchBookByIsbn("9780743273565"));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void shouldTimeOutInsteadOfWaitingForSlowUpstream() {
+        delayMs.set(2_000);
+
+        long start = System.nanoTime();
+        assertThrows(ServiceUnavailableException.class, () -> client.fetchBookByIsbn("9780743273565"));
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMs < 1_000, "call took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void shouldOpenCircuitAndFailFastAfterRepeatedTimeouts() {
+        delayMs.set(2_000);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ServiceUnavailableException.class, () -> client.fetchBookByIsbn("9780743273565"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        int hitsBeforeOpenCall = hits.get();
+
+        long start = System.nanoTime();
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                () -> client.fetchBookByIsbn("9780743273565"));
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(ex.getMessage().contains("currently unavailable"));
+        assertTrue(elapsedMs < 100, "open circuit call took " + elapsedMs + " ms");
+        assertEquals(hitsBeforeOpenCall, hits.get());
+        assertEquals(1.0, meterRegistry.counter("openlibrary.circuitbreaker.transitions",
+                "from", "CLOSED", "to", "OPEN").count());
+    }
+
+    @Test
+    void shouldRejectCallsBeyondBulkheadLimit() throws Exception {
+        delayMs.set(150);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = callers.submit(() -> client.fetchBookByIsbn("1"));
+            Future<String> second = callers.submit(() -> client.fetchBookByIsbn("2"));
+            while (hits.get() < 2) {
+                Thread.sleep(5);
+            }
+
+            ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                    () -> client.fetchBookByIsbn("3"));
+
+            assertTrue(ex.getMessage().contains("Too many concurrent"));
+            assertEquals(RESPONSE, first.get());
+            assertEquals(RESPONSE, second.get());
+            assertEquals(1.0, meterRegistry.counter("openlibrary.bulkhead.rejected").count());
+            assertEquals(2, hits.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
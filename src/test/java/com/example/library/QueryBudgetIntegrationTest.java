@@ -0,0 +1,181 @@
+package com.example.library;
+
+import com.example.library.datasource.QueryBudget;
+import com.example.library.datasource.QueryBudgetExceededException;
+import com.example.library.model.*;
+import com.example.library.repository.*;
+import com.example.library.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the endpoints that declare a {@link QueryBudget} against a real database, through the JWT filter,
+ * with budgets enforced, so a handler going over its budget fails here rather than in production logs.
+ * The Flyway migrations are written for PostgreSQL, so the schema comes from the entities.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_budgets;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "jwt.secret=query-budget-test-secret-0123456789abcdef0123456789",
+        "app.jdbc.inspection.enforce-budgets=true",
+        "app.security.rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+@Import(QueryBudgetIntegrationTest.OverBudgetController.class)
+public class QueryBudgetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private LibraryRepository libraryRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CopyRepository copyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @MockitoBean
+    private JavaMailSender mailSender;
+
+    private Library library;
+    private User patron;
+    private User librarian;
+    private Copy reservedCopy;
+
+    @BeforeEach
+    void setUp() {
+        library = libraryRepository.save(Library.builder()
+                .name("Central").address("Main St 1").status(LibraryStatus.ACTIVE).build());
+        patron = userRepository.save(User.builder()
+                .email("patron@example.com").password("{noop}patron").role(UserRole.USER).build());
+        librarian = userRepository.save(User.builder()
+                .email("librarian@example.com").password("{noop}librarian").role(UserRole.LIBRARIAN).library(library).build());
+
+        // several loans and reservations on distinct books, so a missing fetch join shows up as extra statements
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 3; i++) {
+            Book book = bookRepository.save(new Book("Book " + i, "Author " + i, "978000000000" + i));
+            Copy borrowed = copyRepository.save(Copy.builder().book(book).library(library).status(CopyStatus.BORROWED).build());
+            loanRepository.save(Loan.builder().user(patron).copy(borrowed)
+                    .startDate(today.minusDays(3)).endDate(today.plusWeeks(2)).build());
+            Copy reserved = copyRepository.save(Copy.builder().book(book).library(library).status(CopyStatus.RESERVED).build());
+            reservationRepository.save(Reservation.builder().user(patron).copy(reserved)
+                    .createdAt(today).expirationDate(today.plusDays(3)).status(ReservationStatus.WAITING).build());
+            reservedCopy = reserved;
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        loanRepository.deleteAll();
+        copyRepository.deleteAll();
+        userRepository.deleteAll();
+        bookRepository.deleteAll();
+        libraryRepository.deleteAll();
+    }
+
+    @Test
+    void loanEndpointsStayWithinTheirBudgets() throws Exception {
+        assertWithinBudget(get("/loans/user/{userId}", patron.getId()), patron, status().isOk(), "GET /loans/user/{userId}");
+        assertWithinBudget(get("/loans/me"), patron, status().isOk(), "GET /loans/me");
+        assertWithinBudget(get("/loans/me/active"), patron, status().isOk(), "GET /loans/me/active");
+        assertWithinBudget(get("/loans/library/{libraryId}", library.getId()), librarian, status().isOk(),
+                "GET /loans/library/{libraryId}");
+        assertWithinBudget(post("/loans").param("userId", patron.getId().toString())
+                        .param("copyId", reservedCopy.getId().toString()),
+                librarian, status().isAccepted(), "POST /loans");
+    }
+
+    @Test
+    void reservationEndpointsStayWithinTheirBudgets() throws Exception {
+        assertWithinBudget(get("/reservations/user/{userId}", patron.getId()), patron, status().isOk(),
+                "GET /reservations/user/{userId}");
+        assertWithinBudget(get("/reservations/me"), patron, status().isOk(), "GET /reservations/me");
+        assertWithinBudget(get("/reservations/me/active"), patron, status().isOk(), "GET /reservations/me/active");
+        assertWithinBudget(get("/reservations/library/{libraryId}", library.getId()), librarian, status().isOk(),
+                "GET /reservations/library/{libraryId}");
+    }
+
+    @Test
+    void requestOverItsBudgetFails() {
+        Exception failure = assertThrows(Exception.class, () -> mockMvc.perform(authenticated(get("/test/over-budget"), patron)));
+
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(failure);
+        assertInstanceOf(QueryBudgetExceededException.class, cause);
+        assertTrue(cause.getMessage().contains("budget is 1"));
+        assertEquals(1, meterRegistry.get("db.statements.budget.exceeded")
+                .tag("unit", "GET /test/over-budget").counter().count());
+    }
+
+    private void assertWithinBudget(MockHttpServletRequestBuilder request, User user, ResultMatcher expected,
+                                    String unit) throws Exception {
+        mockMvc.perform(authenticated(request, user)).andExpect(expected);
+
+        // the request was measured at all: at least the JWT filter's user lookup
+        assertTrue(meterRegistry.get("db.statements").tag("unit", unit).summary().max() > 0, unit);
+    }
+
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request, User user) {
+        return request.header("Authorization", "Bearer " + jwtService.generateToken(user));
+    }
+
+    @RestController
+    static class OverBudgetController {
+
+        private final BookRepository bookRepository;
+
+        OverBudgetController(BookRepository bookRepository) {
+            this.bookRepository = bookRepository;
+        }
+
+        @QueryBudget(1)
+        @GetMapping("/test/over-budget")
+        public long countTwice() {
+            return bookRepository.count() + bookRepository.count();
+        }
+    }
+}
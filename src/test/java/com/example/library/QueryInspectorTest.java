@@ -0,0 +1,87 @@
+package com.example.library;
+
+import com.example.library.datasource.QueryBudgetExceededException;
+import com.example.library.datasource.QueryInspectionPostProcessor;
+import com.example.library.datasource.QueryInspector;
+import com.example.library.datasource.QueryScope;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryInspectorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueryInspector queryInspector;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        queryInspector = new QueryInspector(beanFactory.getBeanProvider(MeterRegistry.class), Duration.ofSeconds(1), 5, true);
+        beanFactory.addBean("queryInspector", queryInspector);
+
+        DataSource dataSource = (DataSource) new QueryInspectionPostProcessor(beanFactory.getBeanProvider(QueryInspector.class))
+                .postProcessAfterInitialization(
+                        new DriverManagerDataSource("jdbc:h2:mem:inspected;DB_CLOSE_DELAY=-1", "sa", ""), "dataSource");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS books (id BIGINT PRIMARY KEY, title VARCHAR(255))");
+    }
+
+    @Test
+    void shouldCountStatementsOfTheOpenScopeOnly() {
+        jdbcTemplate.queryForList("SELECT * FROM books");
+
+        try (QueryScope scope = QueryScope.open("GET /books")) {
+            jdbcTemplate.queryForList("SELECT * FROM books WHERE id = ?", 1L);
+            jdbcTemplate.queryForList("SELECT * FROM books WHERE title = 'Solaris'");
+
+            assertEquals(2, scope.statements());
+        }
+    }
+
+    @Test
+    void shouldFoldLiteralsAndBindValuesIntoOneShape() {
+        try (QueryScope scope = QueryScope.open("GET /users/library")) {
+            for (long id = 1; id <= 6; id++) {
+                jdbcTemplate.queryForList("SELECT * FROM books WHERE id = " + id);
+            }
+            jdbcTemplate.queryForList("SELECT * FROM books WHERE id IN (1, 2, 3)");
+            jdbcTemplate.queryForList("SELECT * FROM books WHERE id IN (?, ?)", 4L, 5L);
+
+            Map<String, Integer> repeated = scope.repeatedShapes(2);
+            assertEquals(Map.of(
+                    "SELECT * FROM books WHERE id = ?", 6,
+                    "SELECT * FROM books WHERE id IN (?)", 2), repeated);
+        }
+    }
+
+    @Test
+    void shouldFailWhenBudgetIsExceeded() {
+        QueryScope scope = QueryScope.open("GET /loans/library/1");
+        try (scope) {
+            for (long id = 1; id <= 6; id++) {
+                jdbcTemplate.queryForList("SELECT * FROM books WHERE id = ?", id);
+            }
+        }
+
+        QueryBudgetExceededException exception = assertThrows(QueryBudgetExceededException.class,
+                () -> queryInspector.report(scope, "GET /loans/library/{libraryId}", 3));
+
+        assertTrue(exception.getMessage().contains("executed 6 statements, budget is 3"));
+        assertEquals(1, meterRegistry.get("db.statements.budget.exceeded").tag("unit", "GET /loans/library/{libraryId}").counter().count());
+        assertEquals(1, meterRegistry.get("db.statements.repeated").counter().count());
+        assertEquals(6.0, meterRegistry.get("db.statements").summary().totalAmount());
+    }
+}
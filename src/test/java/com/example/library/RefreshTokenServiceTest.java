@@ -0,0 +1,90 @@
+package com.example.library;
+
+import com.example.library.metrics.LibraryMetrics;
+import com.example.library.model.RefreshToken;
+import com.example.library.model.User;
+import com.example.library.repository.RefreshTokenRepository;
+import com.example.library.service.RefreshTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T08:00:00Z");
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, Clock.fixed(NOW, ZoneId.of("UTC")),
+                new LibraryMetrics(meterRegistry));
+        ReflectionTestUtils.setField(refreshTokenService, "purgeBatchSize", 100);
+    }
+
+    @Test
+    void createRefreshToken_storesOnlyHashInOneUpsert() {
+        User user = new User();
+        user.setId(7L);
+
+        RefreshToken issued = refreshTokenService.createRefreshToken(user);
+
+        assertThat(issued.getToken()).isNotBlank();
+        assertThat(issued.getTokenHash()).isEqualTo(RefreshToken.hash(issued.getToken())).hasSize(64);
+        verify(refreshTokenRepository).rotate(7L, issued.getTokenHash(), NOW, NOW.plus(7, ChronoUnit.DAYS));
+        verifyNoMoreInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void findByToken_looksUpByHashAndKeepsPresentedToken() {
+        RefreshToken stored = new RefreshToken();
+        stored.setTokenHash(RefreshToken.hash("presented"));
+        when(refreshTokenRepository.findById(RefreshToken.hash("presented"))).thenReturn(Optional.of(stored));
+
+        Optional<RefreshToken> found = refreshTokenService.findByToken("presented");
+
+        assertThat(found).containsSame(stored);
+        assertThat(found.get().getToken()).isEqualTo("presented");
+        assertThat(refreshTokenService.findByToken(null)).isEmpty();
+    }
+
+    @Test
+    void verifyExpiration_rejectsExpiredTokenWithoutDeletingIt() {
+        RefreshToken expired = new RefreshToken("rt", null, NOW.minusSeconds(20), NOW.minusSeconds(10));
+
+        assertThatThrownBy(() -> refreshTokenService.verifyExpiration(expired))
+                .hasMessageContaining("expired");
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void purgeExpiredTokens_deletesInChunksUntilBacklogIsGone() {
+        when(refreshTokenRepository.deleteExpired(eq(NOW), eq(100))).thenReturn(100, 100, 42);
+
+        refreshTokenService.purgeExpiredTokens();
+
+        verify(refreshTokenRepository, times(3)).deleteExpired(NOW, 100);
+        assertThat(meterRegistry.get("library.jobs.batch.size").tag("job", "purge_refresh_tokens").summary().totalAmount())
+                .isEqualTo(242.0);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.library;
+
+import com.example.library.datasource.ReadYourWritesTracker;
+import com.example.library.datasource.ReplicaPool;
+import com.example.library.datasource.ReplicaRoutingDataSource;
+import com.example.library.service.ResourceVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaPool replicaPool;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        new JdbcTemplate(replica).update("INSERT INTO replica_lag VALUES (0)");
+
+        replicaPool = new ReplicaPool(List.of(new ReplicaPool.Replica("replica-0", replica)),
+                "SELECT seconds FROM replica_lag", Duration.ofSeconds(1));
+        route(replicaPool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionsToReplica() {
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void shouldSendWritesAndNonTransactionalCallsToPrimary() {
+        assertEquals("primary", readWrite.execute(status -> currentNode()));
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhileReplicaLags() {
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 30");
+        replicaPool.checkReplicas();
+
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 0.2");
+        replicaPool.checkReplicas();
+
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaIsUnreachable() {
+        ReplicaPool unreachable = new ReplicaPool(
+                List.of(new ReplicaPool.Replica("replica-0", new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/missing"))),
+                "SELECT 0", Duration.ofSeconds(1));
+        route(unreachable);
+        unreachable.checkReplicas();
+
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimary() {
+        authenticate("alice@example.com");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+
+        authenticate("bob@example.com");
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void shouldReadVersionAndBodyFromSameReplicaInOneTransaction() {
+        // the replica has not replayed the last write to books yet
+        version(primary, 2);
+        version(replica, 1);
+        ResourceVersionService versions = new ResourceVersionService(new NamedParameterJdbcTemplate(jdbcTemplate));
+
+        // readIfModified is @Transactional(readOnly = true); without a proxy here the template stands in for it
+        List<String> tags = new ArrayList<>();
+        String body = readOnly.execute(status -> versions.readIfModified(tag -> !tags.add(tag), this::currentNode,
+                ResourceVersionService.BOOKS).orElseThrow());
+
+        assertEquals(List.of("\"v1\""), tags);
+        assertEquals("replica", body);
+        // outside the transaction the tag would come from the primary and go out with the replica's body
+        assertEquals("\"v2\"", versions.etag(ResourceVersionService.BOOKS));
+    }
+
+    private void route(ReplicaPool pool) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, pool, new ReadYourWritesTracker(Clock.systemUTC(), Duration.ofMinutes(1))));
+        routing.setDefaultAutoCommit(true);
+        routing.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbcTemplate = new JdbcTemplate(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static void version(DataSource dataSource, long version) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE resource_versions (resource VARCHAR(100) PRIMARY KEY, version BIGINT)");
+        jdbcTemplate.update("INSERT INTO resource_versions VALUES (?, ?)", ResourceVersionService.BOOKS, version);
+    }
+
+    private static DataSource database(String node) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + node + "_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", node);
+        return dataSource;
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken(email, null, "ROLE_USER"));
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.library;
 
+import com.example.library.cache.CacheInvalidation;
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.dto.ReservationDTO;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
+import com.example.library.metrics.LibraryMetrics;
 import com.example.library.model.*;
 import com.example.library.repository.CopyRepository;
 import com.example.library.repository.ReservationRepository;
 import com.example.library.repository.UserRepository;
 import com.example.library.service.NotificationService;
 import com.example.library.service.ReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -34,6 +38,7 @@ class ReservationServiceTest {
     @Mock private CopyRepository copyRepository;
     @Mock private UserRepository userRepository;
     @Mock private NotificationService notificationService;
+    @Mock private CacheInvalidationBus cacheInvalidationBus;
 
     @Mock private Authentication authentication;
 
@@ -55,7 +60,8 @@ class ReservationServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        reservationService = new ReservationService(reservationRepository, copyRepository, userRepository, notificationService, fixedClock);
+        reservationService = new ReservationService(reservationRepository, copyRepository, userRepository, notificationService, fixedClock,
+                new LibraryMetrics(new SimpleMeterRegistry()), cacheInvalidationBus);
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         when(authentication.getName()).thenReturn(testUser.getEmail());
@@ -92,6 +98,7 @@ class ReservationServiceTest {
         reservationService.reserveCopy(1L);
 
         verify(copyRepository).save(argThat(copy -> copy.getStatus() == CopyStatus.RESERVED));
+        verify(cacheInvalidationBus).publishAfterCommit(CacheInvalidation.of(Copy.class, 1L));
         verify(reservationRepository).save(any());
         verify(notificationService).sendAcceptedReservationNotification(eq("user@example.com"), any());
     }
@@ -115,6 +122,7 @@ class ReservationServiceTest {
 
         verify(reservationRepository).save(argThat(r -> r.getStatus() == ReservationStatus.CANCELLED));
         verify(copyRepository).save(argThat(c -> c.getStatus() == CopyStatus.AVAILABLE));
+        verify(cacheInvalidationBus).publishAfterCommit(CacheInvalidation.of(Copy.class, 1L));
         verify(notificationService).sendCancelReservationNotification(eq("user@example.com"), any());
     }
 
@@ -204,6 +212,7 @@ class ReservationServiceTest {
 
         verify(reservationRepository).save(expired);
         verify(copyRepository).save(expired.getCopy());
+        verify(cacheInvalidationBus).publishAfterCommit(CacheInvalidation.of(Copy.class, expired.getCopy().getId()));
         verify(notificationService).sendCancelReservationNotification(eq("user@example.com"), eq(expired));
         verify(notificationService).sendOneDayLeftNotification(eq("user@example.com"), eq(reminder));
     }
@@ -1,5 +1,6 @@
 package com.example.library;
 
+import com.example.library.cache.CacheInvalidationBus;
 import com.example.library.dto.UserRegistrationDTO;
 import com.example.library.exception.BadRequestException;
 import com.example.library.exception.NotFoundException;
@@ -47,6 +48,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @Mock
     private Authentication authentication;
 